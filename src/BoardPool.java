@@ -0,0 +1,169 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pool of mine layouts made ahead of time for each prepared board
+ * configuration, so starting a new game never waits on generating one.
+ * Background threads at low priority keep each pool full, pausing while the
+ * system is busy. If a pool is empty, or the configuration was never
+ * prepared, a layout is made on the spot instead. Pools for big boards hold
+ * fewer layouts so each stays under poolBytes, and a pool that is no longer
+ * needed can be released. Hits and misses are counted in GameMetrics.
+ * @author Amber Smith
+ */
+public class BoardPool {
+
+    /** number of layouts kept ready for each configuration */
+    private static final int poolSize = 8;
+
+    /** most bytes of layouts kept for one configuration */
+    private static final long poolBytes = 64L << 20;
+
+    /** how long workers sleep while the system is busy or pools are full */
+    private static final long pauseMillis = 200;
+
+    /**
+     * ready layouts for each prepared configuration, keyed by rows, cols,
+     * mines. Only the preset boards and the current custom board are
+     * prepared, so this stays small.
+     */
+    private static final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    /** lock the workers wait on until a layout is taken */
+    private static final Object refillNeeded = new Object();
+
+    static {
+        int workers = Math.max(1,
+                Runtime.getRuntime().availableProcessors() - 1);
+        for (int i = 0; i < workers; i++) {
+            Thread t = new Thread(BoardPool::refill, "board-pool-" + i);
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            t.start();
+        }
+    }
+
+    /**
+     * Start keeping layouts ready for a configuration
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param numMines number of mines
+     */
+    public static void prepare(int rows, int cols, int numMines) {
+        pools.computeIfAbsent(key(rows, cols, numMines),
+                k -> new Pool(rows, cols, numMines));
+        wakeWorkers();
+    }
+
+    /**
+     * Stop keeping layouts ready for a configuration and drop the ones made
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param numMines number of mines
+     */
+    public static void release(int rows, int cols, int numMines) {
+        pools.remove(key(rows, cols, numMines));
+    }
+
+    /**
+     * Take a layout for a configuration, making one on the spot if none are
+     * ready. Configurations that were never prepared get no pool, so one-off
+     * sizes do not keep layouts in memory.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param numMines number of mines
+     * @return flat index of each mine
+     */
+    public static int[] take(int rows, int cols, int numMines) {
+        Pool pool = pools.get(key(rows, cols, numMines));
+        int[] mines = pool == null ? null : pool.ready.poll();
+        GameMetrics.poolTake(mines != null);
+        if (mines == null) {
+            long start = GameMetrics.start();
+            mines = HexMineManager.generateMines(rows, cols, numMines,
+                    ThreadLocalRandom.current());
+            GameMetrics.stop(GameMetrics.generationNanos, start);
+        }
+        if (pool != null) {
+            wakeWorkers();
+        }
+        return mines;
+    }
+
+    private static String key(int rows, int cols, int numMines) {
+        return rows + "x" + cols + "-" + numMines;
+    }
+
+    private static void wakeWorkers() {
+        synchronized (refillNeeded) {
+            refillNeeded.notifyAll();
+        }
+    }
+
+    /**
+     * Check whether the system is busy enough that workers should pause
+     * @return true if the load average is at or above the number of cores
+     */
+    private static boolean systemBusy() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        double load = os.getSystemLoadAverage();
+        return load >= os.getAvailableProcessors();
+    }
+
+    /**
+     * Body of each worker thread, which fills pools that have room forever
+     */
+    private static void refill() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            boolean madeOne = false;
+            if (!systemBusy()) {
+                for (Pool pool : pools.values()) {
+                    if (pool.ready.remainingCapacity() > 0) {
+                        long start = GameMetrics.start();
+                        int[] mines = HexMineManager.generateMines(pool.rows,
+                                pool.cols, pool.numMines, random);
+                        if (pool.ready.offer(mines)) {
+                            GameMetrics.stop(GameMetrics.poolRefillNanos,
+                                    start);
+                            madeOne = true;
+                        }
+                    }
+                }
+            }
+
+            if (!madeOne) {
+                try {
+                    synchronized (refillNeeded) {
+                        refillNeeded.wait(pauseMillis);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Nested class for the ready layouts of one configuration
+     */
+    private static class Pool {
+        final int rows;
+        final int cols;
+        final int numMines;
+        final ArrayBlockingQueue<int[]> ready;
+
+        private Pool(int rows, int cols, int numMines) {
+            this.rows = rows;
+            this.cols = cols;
+            this.numMines = numMines;
+            long layoutBytes = 4L * Math.max(1, numMines);
+            ready = new ArrayBlockingQueue<>((int) Math.max(1,
+                    Math.min(poolSize, poolBytes / layoutBytes)));
+        }
+    }
+}
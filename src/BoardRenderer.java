@@ -0,0 +1,131 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streams the text form of a HexMineManager board one row at a time, so huge
+ * boards never have to be built as one string. Rows are written from buffers
+ * that are reused for every row, and any sub-rectangle of the board can be
+ * rendered. The layout matches HexMineManager.toString, with odd columns
+ * shifted right by one space. A renderer is not safe to share across threads.
+ * @author Amber Smith
+ */
+public class BoardRenderer {
+
+    /** board to render */
+    private final HexMineManager game;
+
+    /** reused buffers for the characters and bytes of one row */
+    private final char[] rowChars;
+    private final CharBuffer rowView;
+    private final ByteBuffer rowBytes;
+
+    /**
+     * Constructor for a renderer of one board
+     * @param game board to render
+     */
+    public BoardRenderer(HexMineManager game) {
+        this.game = game;
+        rowChars = new char[maxRowLength(game.cols)];
+        rowView = CharBuffer.wrap(rowChars);
+        rowBytes = ByteBuffer.allocate(rowChars.length);
+    }
+
+    /**
+     * Find the most characters a row can need, two for every cell, one more
+     * for every odd column, and the newline
+     * @param cols number of columns
+     * @return length of the longest row
+     */
+    private static int maxRowLength(int cols) {
+        return 2 * cols + cols / 2 + 1;
+    }
+
+    /**
+     * Fill the row buffer with one row of a sub-rectangle
+     * @param row row to render
+     * @param colFrom first column, inclusive
+     * @param colTo last column, exclusive
+     * @return number of characters in the buffer
+     */
+    public int renderRow(int row, int colFrom, int colTo) {
+        char[] cells = game.grid[row];
+        int length = 0;
+        for (int j = colFrom; j < colTo; j++) {
+            if (j % 2 == 1) {
+                rowChars[length++] = ' ';
+            }
+            rowChars[length++] = cells[j];
+            rowChars[length++] = ' ';
+        }
+        rowChars[length++] = '\n';
+        return length;
+    }
+
+    /**
+     * Write the whole board
+     * @param out destination of the text
+     * @throws IOException if the destination fails
+     */
+    public void render(Appendable out) throws IOException {
+        render(out, 0, game.rows, 0, game.cols);
+    }
+
+    /**
+     * Write a sub-rectangle of the board
+     * @param out destination of the text
+     * @param rowFrom first row, inclusive
+     * @param rowTo last row, exclusive
+     * @param colFrom first column, inclusive
+     * @param colTo last column, exclusive
+     * @throws IOException if the destination fails
+     */
+    public void render(Appendable out, int rowFrom, int rowTo,
+                       int colFrom, int colTo) throws IOException {
+        for (int i = rowFrom; i < rowTo; i++) {
+            int length = renderRow(i, colFrom, colTo);
+            if (out instanceof Writer) {
+                ((Writer) out).write(rowChars, 0, length);
+            } else if (out instanceof StringBuilder) {
+                ((StringBuilder) out).append(rowChars, 0, length);
+            } else {
+                out.append(rowView, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Write the whole board as ASCII bytes
+     * @param out destination of the bytes
+     * @throws IOException if the destination fails
+     */
+    public void render(WritableByteChannel out) throws IOException {
+        render(out, 0, game.rows, 0, game.cols);
+    }
+
+    /**
+     * Write a sub-rectangle of the board as ASCII bytes
+     * @param out destination of the bytes
+     * @param rowFrom first row, inclusive
+     * @param rowTo last row, exclusive
+     * @param colFrom first column, inclusive
+     * @param colTo last column, exclusive
+     * @throws IOException if the destination fails
+     */
+    public void render(WritableByteChannel out, int rowFrom, int rowTo,
+                       int colFrom, int colTo) throws IOException {
+        for (int i = rowFrom; i < rowTo; i++) {
+            int length = renderRow(i, colFrom, colTo);
+            rowBytes.clear();
+            for (int k = 0; k < length; k++) {
+                rowBytes.put((byte) rowChars[k]);
+            }
+            rowBytes.flip();
+            while (rowBytes.hasRemaining()) {
+                out.write(rowBytes);
+            }
+        }
+    }
+}
@@ -2,98 +2,185 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class to create the game board, including each hex cell and the entire grid.
  * Handles left and right clicks appropriately, detects game win/loss, and
- * creates a panel to be added to the overall frame.
+ * creates a panel to be added to the overall frame. Cell positions are worked
+ * out from their row and column rather than stored, so boards with millions
+ * of cells lay out quickly. When hexes would be smaller than minHexSize the
+ * board is drawn in a level of detail mode, one colored square per cell.
  * @author Amber Smith
  */
 public class GameBoardGUI {
 
+    /** hex sizes below this are drawn as squares of that many pixels */
+    public static final int minHexSize = 4;
+
+    /** largest hex size used when fitting a board to a window */
+    public static final int maxHexSize = 30;
+
     /** holds the number of rows and columns and size of a hex board */
     private final int numRows;
     private final int numCols;
     private final int hexSize;
 
-    /** an array of HexCell objects to represent the game board */
-    private HexCell[][] hexCells;
+    /** whether the board is drawn as squares, and the spacing of cells */
+    private final boolean levelOfDetail;
+    private final int colStep;
+    private final int rowStep;
+
+    /**
+     * offscreen image holding the fill and border of every cell, drawn once
+     * when the board is made and then updated one cell at a time. In level of
+     * detail mode it has one pixel per cell, held in lodPixels.
+     */
+    private BufferedImage baseLayer;
+    private Graphics2D baseGraphics;
+    private int[] lodPixels;
+
+    /** copy of the base layer with every cell covered, for new games */
+    private BufferedImage coveredLayer;
 
     /** final game board JPanel to be used for the game board GUI */
     JPanel gameBoard;
 
     /** color for the background of the panel */
-    private final Color background = new Color(87, 130, 31);
-    private final Color uncovered = new Color(208, 232, 176);
-    private static final Color covered = new Color(144, 189, 51);
+    static final Color background = new Color(87, 130, 31);
+    static final Color uncovered = new Color(208, 232, 176);
+    static final Color covered = new Color(144, 189, 51);
+
+    /** colors for flags and mines in level of detail mode */
+    private static final Color lodFlag = new Color(232, 84, 150);
+    private static final Color lodMine = new Color(255, 163, 45);
+
+    /**
+     * RGB colors of the cells in level of detail mode, one per number of
+     * mine neighbors, shaded darker the more mines they touch
+     */
+    private static final int[] lodNumbers = new int[7];
+
+    static {
+        for (int n = 0; n < lodNumbers.length; n++) {
+            double shade = 1 - n * 0.08;
+            lodNumbers[n] = new Color((int) (uncovered.getRed() * shade),
+                    (int) (uncovered.getGreen() * shade),
+                    (int) (uncovered.getBlue() * shade)).getRGB();
+        }
+    }
 
     /** boolean to represent whether a button has been clicked, game started */
     private boolean timerStarted = false;
 
-    /** images to represent different board states */
-    ImageIcon flag = new ImageIcon
-            (GameBoardGUI.class.getResource("/TruffulaTree.png"));
-    ImageIcon mine = new ImageIcon
-            (GameBoardGUI.class.getResource("/LoraxMine.png"));
-    ImageIcon one = new ImageIcon
-            (GameBoardGUI.class.getResource("/one.PNG"));
-    ImageIcon two = new ImageIcon
-            (GameBoardGUI.class.getResource("/two.PNG"));
-    ImageIcon three = new ImageIcon
-            (GameBoardGUI.class.getResource("/three.PNG"));
-    ImageIcon four = new ImageIcon
-            (GameBoardGUI.class.getResource("/four.PNG"));
-    ImageIcon five = new ImageIcon
-            (GameBoardGUI.class.getResource("/five.PNG"));
-    ImageIcon six = new ImageIcon
-            (GameBoardGUI.class.getResource("/six.PNG"));
+    /** images to represent different board states, shared by every board */
+    static final ImageIcon flag = loadImage("/TruffulaTree.png");
+    static final ImageIcon mine = loadImage("/LoraxMine.png");
+    static final ImageIcon one = loadImage("/one.PNG");
+    static final ImageIcon two = loadImage("/two.PNG");
+    static final ImageIcon three = loadImage("/three.PNG");
+    static final ImageIcon four = loadImage("/four.PNG");
+    static final ImageIcon five = loadImage("/five.PNG");
+    static final ImageIcon six = loadImage("/six.PNG");
+
+    /**
+     * Load an image resource, recording how long the load takes
+     * @param path resource path of the image
+     * @return the loaded image
+     */
+    private static ImageIcon loadImage(String path) {
+        long start = GameMetrics.start();
+        ImageIcon image = new ImageIcon(GameBoardGUI.class.getResource(path));
+        GameMetrics.stop(GameMetrics.resourceNanos, start);
+        return image;
+    }
 
     /** HexMineManager object to manage the game logic */
-    private static HexMineManager mineManager;
+    private final HexMineManager mineManager;
+
+    /** leaderboard for this board, loaded in the background when it is made */
+    private final Leaderboard leaderboard;
+
+    /** number of leaderboard entries shown when a game ends */
+    private static final int shownScores = 5;
+
+    /** longest time to wait for a win to reach the leaderboard, in ms */
+    private static final long recordWaitMillis = 500;
 
     /**
-     * HexGrid class constructor, calls makeCells and makePanel
+     * HexGrid class constructor, calls makeBaseLayer and makePanel
+     * @param numRows number of rows
+     * @param numCols number of columns
+     * @param size size of each hexagon, or pixels per cell below minHexSize
+     * @param numMines number of mines
      */
     public GameBoardGUI(int numRows, int numCols, int size, int numMines) {
         this.numRows = numRows;
         this.numCols = numCols;
-        this.hexSize = size;
+        this.hexSize = Math.max(1, size);
+        this.levelOfDetail = hexSize < minHexSize;
+        if (levelOfDetail) {
+            colStep = hexSize;
+            rowStep = hexSize;
+        } else {
+            colStep = (int) (hexSize * 2 * 0.75);
+            rowStep = (int) (Math.sqrt(3) * hexSize);
+        }
         mineManager = new HexMineManager(numMines, numRows, numCols);
+        leaderboard = Leaderboard.forBoard(numRows, numCols, numMines);
 
-        makeCells();
+        makeBaseLayer();
         makePanel();
     }
 
     /**
-     * Initializes all the cells for the hex grid by correctly sizing them and
-     * assigning a color.
+     * Find the hex size that fits a board into an area, so the board can be
+     * drawn without scrolling when possible
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param width width of the area in pixels
+     * @param height height of the area in pixels
+     * @return hex size, below minHexSize if the board needs level of detail
      */
-    private void makeCells() {
-        hexCells = new HexCell[numRows][numCols];
+    public static int fitHexSize(int rows, int cols, int width, int height) {
+        double fit = Math.min(width / (1.5 * cols + 0.5),
+                height / (Math.sqrt(3) * (rows + 0.5)));
+        if (fit >= minHexSize) {
+            return (int) Math.min(fit, maxHexSize);
+        }
+        int pixels = Math.min(width / cols, height / rows);
+        return Math.max(1, Math.min(pixels, minHexSize - 1));
+    }
 
+    /**
+     * Create the hexagon for a cell in the odd-q layout of the board
+     * @param row row of the cell
+     * @param col column of the cell
+     * @param hexSize size of each hexagon
+     * @return hexagon for the cell
+     */
+    static Polygon cellHex(int row, int col, int hexSize) {
         // find the width and height of each hex cell
         int width = hexSize * 2;
         int height = (int) (Math.sqrt(3) * hexSize);
 
-        for (int row = 0; row < numRows; row++) {
-            for (int col = 0; col < numCols; col++) {
-                int xBound = col * (int) (width * 0.75);
-                int yBound = row * height + (col % 2) * (height / 2);
-                Polygon polygon = makeHex(xBound + hexSize,
-                        yBound + hexSize, hexSize);
-                hexCells[row][col] = new HexCell(polygon);
-            }
-        }
+        int xBound = col * (int) (width * 0.75);
+        int yBound = row * height + (col % 2) * (height / 2);
+        return makeHex(xBound + hexSize, yBound + hexSize, hexSize);
     }
 
     /**
-     * A helper method to makeCells that creates the individual hexagon
+     * A helper method to cellHex that creates the individual hexagon
      * @param xCenter x coordinate of the center
      * @param yCenter y coordinate of the center
      * @param size size of the hexagon
      * @return hexagon to be used in a cell
      */
-    private Polygon makeHex(int xCenter, int yCenter, int size) {
+    private static Polygon makeHex(int xCenter, int yCenter, int size) {
         Polygon polygon = new Polygon();
         for (int i = 0; i < 6; i++) {
             double angle = Math.toRadians(60 * i);
@@ -103,6 +190,100 @@ public class GameBoardGUI {
         return polygon;
     }
 
+    /**
+     * Draw every cell as covered into an offscreen image, so painting the
+     * board is a single image copy. Hexes are drawn into an image matching
+     * the screen format; level of detail mode uses one pixel per cell.
+     */
+    private void makeBaseLayer() {
+        if (levelOfDetail) {
+            baseLayer = new BufferedImage(numCols, numRows,
+                    BufferedImage.TYPE_INT_RGB);
+            lodPixels = ((DataBufferInt) baseLayer.getRaster()
+                    .getDataBuffer()).getData();
+            Arrays.fill(lodPixels, covered.getRGB());
+            return;
+        }
+
+        int width = (numCols - 1) * colStep + 2 * hexSize + 1;
+        int height = numRows * rowStep + rowStep / 2 + 2 * hexSize + 1;
+        if (GraphicsEnvironment.isHeadless()) {
+            baseLayer = new BufferedImage(width, height,
+                    BufferedImage.TYPE_INT_RGB);
+        } else {
+            baseLayer = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration()
+                    .createCompatibleImage(width, height);
+        }
+        baseGraphics = baseLayer.createGraphics();
+        baseGraphics.setColor(background);
+        baseGraphics.fillRect(0, 0, width, height);
+        for (int row = 0; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++) {
+                paintBase(row, col, 'c');
+            }
+        }
+
+        coveredLayer = new BufferedImage(baseLayer.getColorModel(),
+                baseLayer.copyData(null), baseLayer.isAlphaPremultiplied(),
+                null);
+    }
+
+    /**
+     * Draw the fill and border of one cell into the base layer
+     * @param row row of the cell
+     * @param col column of the cell
+     * @param cellState character representing the cell's state
+     */
+    private void paintBase(int row, int col, char cellState) {
+        if (levelOfDetail) {
+            lodPixels[row * numCols + col] = lodColor(cellState);
+            return;
+        }
+        Polygon hex = cellHex(row, col, hexSize);
+        baseGraphics.setColor(cellState == 'c' || cellState == 'F' ?
+                covered : uncovered);
+        baseGraphics.fillPolygon(hex);
+        baseGraphics.setColor(background);
+        baseGraphics.drawPolygon(hex);
+    }
+
+    /**
+     * Get the color of a cell state in level of detail mode. Numbers are
+     * shaded darker the more mines they touch.
+     * @param cellState character representing the cell's state
+     * @return RGB color of the cell
+     */
+    private static int lodColor(char cellState) {
+        switch (cellState) {
+            case 'c':
+                return covered.getRGB();
+            case 'F':
+                return lodFlag.getRGB();
+            case 'M':
+                return lodMine.getRGB();
+            case '.':
+                return uncovered.getRGB();
+            default:
+                return lodNumbers[cellState - '0'];
+        }
+    }
+
+    /**
+     * Update the base layer for every cell changed between two positions of
+     * the game's delta log
+     * @param from one end of the changed log entries
+     * @param to other end of the changed log entries
+     */
+    private void refreshCells(int from, int to) {
+        for (int i = Math.min(from, to); i < Math.max(from, to); i++) {
+            int cell = mineManager.loggedCell(i);
+            int row = cell / numCols;
+            int col = cell % numCols;
+            paintBase(row, col, mineManager.grid[row][col]);
+        }
+    }
+
     /**
      * Create the JPanel for the game board GUI
      */
@@ -114,19 +295,28 @@ public class GameBoardGUI {
             }
         };
 
-        int width = (int) (numCols * hexSize * 1.5);
-        int height = (int) (numRows * (Math.sqrt(3) * hexSize));
+        int width;
+        int height;
+        if (levelOfDetail) {
+            width = numCols * hexSize;
+            height = numRows * hexSize;
+        } else {
+            width = (int) (numCols * hexSize * 1.5);
+            height = (int) (numRows * (Math.sqrt(3) * hexSize));
+        }
         gameBoard.setPreferredSize(new Dimension(width, height));
         gameBoard.setBackground(background);
 
         gameBoard.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                handleClick(e);
+                // start the timer first, a click that ends the game may
+                // start a new one that must wait for its own first click
                 if (!timerStarted) {
                     timerStarted = true;
                     HexMines.timerObject.start();
                 }
+                handleClick(e);
             }
         });
     }
@@ -137,25 +327,37 @@ public class GameBoardGUI {
      * @param e event of the click
      */
     private void handleClick(MouseEvent e) {
+        long start = GameMetrics.start();
         int x = e.getX();
         int y = e.getY();
 
-        HexCell clickedCell = null;
-        int clickedRow = 0;
-        int clickedCol = 0;
+        int clickedRow = -1;
+        int clickedCol = -1;
 
-        // iterate through the hex cells to determine which was clicked
-        for (int row = 0; row < numRows; row++) {
-            for (int col = 0; col < numCols; col++) {
-                if (hexCells[row][col].hex.contains(x, y)) {
-                    clickedCell = hexCells[row][col];
-                    clickedRow = row;
-                    clickedCol = col;
+        if (levelOfDetail) {
+            if (x < numCols * hexSize && y < numRows * hexSize) {
+                clickedRow = y / hexSize;
+                clickedCol = x / hexSize;
+            }
+        } else {
+            // only the hex cells near the click can contain it
+            int nearCol = x / colStep;
+            int nearRow = y / rowStep;
+            for (int row = nearRow - 2; row <= nearRow + 1; row++) {
+                for (int col = nearCol - 1; col <= nearCol + 1; col++) {
+                    if (row >= 0 && row < numRows && col >= 0 &&
+                            col < numCols &&
+                            cellHex(row, col, hexSize).contains(x, y)) {
+                        clickedRow = row;
+                        clickedCol = col;
+                    }
                 }
             }
         }
 
-        if (clickedCell == null) {
+        GameMetrics.stop(GameMetrics.clickNanos, start);
+
+        if (clickedRow < 0) {
             return;
         }
 
@@ -167,14 +369,17 @@ public class GameBoardGUI {
     }
 
     /**
-     * handle the left click by checking if the cell is already uncovered
+     * handle the left click by checking if the cell is still covered, and
+     * redraw every cell the click uncovered
      * @param row row of the clicked cell
      * @param col column of the clicked cell
      */
     private void leftClick(int row, int col) {
-        if (hexCells[row][col].hasNoImage()) {
-            drawCellImage(mineManager.uncover(row,col),row,col);
-            if (drawCellImage(mineManager.uncover(row,col),row,col)) {
+        if (mineManager.grid[row][col] == 'c') {
+            int before = mineManager.logPosition();
+            char cellState = mineManager.uncover(row, col);
+            refreshCells(before, mineManager.logPosition());
+            if (cellState == 'M') {
                 gameBoard.repaint();
                 gameEnd(false);
             } else if (mineManager.checkForWin()) {
@@ -186,79 +391,30 @@ public class GameBoardGUI {
     }
 
     /**
-     * Draw the appropriate image for an uncovered cell
-     * @param cellState the character representing the cell state
-     * @param row row of the uncovered cell
-     * @param col column of the uncovered cell
-     * @return true if game is over, false otherwise
-     */
-    public boolean drawCellImage(char cellState, int row, int col) {
-        boolean gameOver = false;
-
-        if (cellState == '.') {
-            for (int r = 0; r < numRows; r++) {
-                for (int c = 0; c < numCols; c++) {
-                    char thisState = mineManager.grid[r][c];
-
-                    if (thisState != 'c' & thisState != 'F') {
-                        redrawSingleCell(thisState, r, c);
-                    }
-                }
-            }
-        } else {
-            redrawSingleCell(cellState,row,col);
-            if (cellState == 'M') {
-                uncoverUnMinedCells();
-                gameOver = true;
-            }
-        }
-        return gameOver;
-    }
-
-    /**
-     * Redraw a single cell on the hex grid, helper method to drawCellImage
+     * Get the image shown for a cell state
      * @param cellState character representing the cell's state
-     * @param row row of the cell
-     * @param col column of the cell
+     * @return the image, or null for covered and blank cells
      */
-    private void redrawSingleCell(char cellState, int row, int col) {
-        hexCells[row][col].color = uncovered;
-
+    static Image stateImage(char cellState) {
         switch (cellState) {
             case '1':
-                hexCells[row][col].setImage(one.getImage());
-                break;
+                return one.getImage();
             case '2':
-                hexCells[row][col].setImage(two.getImage());
-                break;
+                return two.getImage();
             case '3':
-                hexCells[row][col].setImage(three.getImage());
-                break;
+                return three.getImage();
             case '4':
-                hexCells[row][col].setImage(four.getImage());
-                break;
+                return four.getImage();
             case '5':
-                hexCells[row][col].setImage(five.getImage());
-                break;
+                return five.getImage();
             case '6':
-                hexCells[row][col].setImage(six.getImage());
-                break;
+                return six.getImage();
             case 'M':
-                hexCells[row][col].setImage(mine.getImage());
-                break;
-        }
-    }
-
-    /**
-     * helper method used to uncover all cells without a mine if a mine is hit
-     */
-    public void uncoverUnMinedCells() {
-        for (int r = 0; r < numRows; r++) {
-            for (int c = 0; c < numCols; c++) {
-                if (!mineManager.hasMine[r][c]) {
-                    drawCellImage(mineManager.grid[r][c],r,c);
-                }
-            }
+                return mine.getImage();
+            case 'F':
+                return flag.getImage();
+            default:
+                return null;
         }
     }
 
@@ -268,100 +424,119 @@ public class GameBoardGUI {
      * @param col column of the cell clicked
      */
     private void rightClick(int row, int col) {
-        if (hexCells[row][col].color == covered &&
-                hexCells[row][col].getImage() == null) {
-            hexCells[row][col].setImage(flag.getImage());
+        char cellState = mineManager.grid[row][col];
+        if (cellState == 'c' || cellState == 'F') {
             mineManager.toggleFlag(row, col);
-            HexMines.numFlagsObject.editFlags(true);
-        } else if (hexCells[row][col].getImage() == flag.getImage()) {
-            hexCells[row][col].setImage(null);
-            mineManager.toggleFlag(row, col);
-            HexMines.numFlagsObject.editFlags(false);
+            HexMines.numFlagsObject.editFlags(cellState == 'c');
+            paintBase(row, col, mineManager.grid[row][col]);
         }
 
         gameBoard.repaint();
     }
 
     /**
-     * Set the color and image of each hex cell and give a border color.
+     * Copy the base layer of cell fills and borders, then draw the image of
+     * each visible cell that has one on top, giving it a border again. In
+     * level of detail mode the base layer is scaled up and has no images.
      * @param g graphics object used to paint
      */
     private void drawGrid(Graphics g) {
+        long start = GameMetrics.start();
         Graphics2D g2 = (Graphics2D) g;
+        if (levelOfDetail) {
+            g2.drawImage(baseLayer, 0, 0, numCols * hexSize,
+                    numRows * hexSize, null);
+            GameMetrics.stop(GameMetrics.paintNanos, start);
+            return;
+        }
+        g2.drawImage(baseLayer, 0, 0, null);
 
-        for (int row = 0; row < numRows; row++) {
-            for (int col = 0; col < numCols; col++) {
-                HexCell cell = hexCells[row][col];
-
-                g2.setColor(cell.color);
-                g2.fillPolygon(cell.hex);
+        // find the rows and columns inside the area being painted
+        Rectangle area = g2.getClipBounds();
+        if (area == null) {
+            area = new Rectangle(baseLayer.getWidth(), baseLayer.getHeight());
+        }
+        int firstRow = Math.max(0, area.y / rowStep - 1);
+        int lastRow = Math.min(numRows - 1,
+                (area.y + area.height) / rowStep + 1);
+        int firstCol = Math.max(0, area.x / colStep - 1);
+        int lastCol = Math.min(numCols - 1,
+                (area.x + area.width) / colStep + 1);
+
+        long cellsPainted = 0;
+        Shape clip = g2.getClip();
+        g2.setColor(background);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Image image = stateImage(mineManager.grid[row][col]);
 
                 // if the hex cell has an image draw it
-                if (cell.image != null) {
-                    g2.setClip(cell.hex);
-                    Rectangle b = cell.hex.getBounds();
-                    g2.drawImage(cell.image, b.x, b.y,
-                            b.width, b.height, null);
-                    g2.setClip(null);
+                if (image != null) {
+                    Polygon hex = cellHex(row, col, hexSize);
+                    g2.clip(hex);
+                    Rectangle b = hex.getBounds();
+                    g2.drawImage(image, b.x, b.y, b.width, b.height, null);
+                    g2.setClip(clip);
+                    g2.drawPolygon(hex);
+                    cellsPainted++;
                 }
-
-                g2.setColor(background);
-                g2.drawPolygon(cell.hex);
             }
         }
+        GameMetrics.count(GameMetrics.cellsPainted, cellsPainted);
+        GameMetrics.stop(GameMetrics.paintNanos, start);
     }
 
     /**
-     * If game is over, display an option pane that lets you choose to play
-     * again or close the game
+     * If game is over, display an option pane with the best times that lets
+     * you choose to play again or close the game. A win is recorded on the
+     * leaderboard first, waiting briefly so it can show up in the list.
      * @param gameWon whether the game was won
      */
-    private static void gameEnd(boolean gameWon) {
+    private void gameEnd(boolean gameWon) {
         HexMines.timerObject.stop();
-        int result = GameEndGUI.showGameEnd(gameWon);
+        if (gameWon) {
+            Future<?> recorded = leaderboard.record(
+                    HexMines.timerObject.getSeconds(),
+                    HexMines.numFlagsObject.numFlagsUsed);
+            try {
+                recorded.get(recordWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // still being written, show the list without it
+            }
+        }
+        int result = GameEndGUI.showGameEnd(gameWon,
+                leaderboard.top(shownScores), leaderboard.personalBest(
+                        System.getProperty("user.name")));
 
         if (result == 0) {
-            HexMines.frame.getContentPane().removeAll();
             HexMines.resetGame();
-            HexMines.makeFrame();
-            HexMines.frame.revalidate();
-            HexMines.frame.repaint();
         } else if (result == 1) {
             System.exit(0);
         }
     }
 
     /**
-     * Get the game board JPanel
-     * @return game board JPanel
+     * Start a new game on this board without rebuilding it. The panel and
+     * images are kept, the base layer is restored to every cell covered, and
+     * a ready mine layout is taken from the board pool.
      */
-    public JPanel getGameBoard() {
-        return gameBoard;
+    public void newGame() {
+        mineManager.reset(BoardPool.take(numRows, numCols,
+                mineManager.numMines));
+        if (levelOfDetail) {
+            Arrays.fill(lodPixels, covered.getRGB());
+        } else {
+            baseGraphics.drawImage(coveredLayer, 0, 0, null);
+        }
+        timerStarted = false;
+        gameBoard.repaint();
     }
 
     /**
-     * Nested class for an object to represent each hex cell.
+     * Get the game board JPanel
+     * @return game board JPanel
      */
-    private static class HexCell {
-        // hex cell characteristics
-        Polygon hex;
-        Color color = covered;
-        Image image = null;
-
-        private HexCell(Polygon hex) {
-            this.hex = hex;
-        }
-
-        private void setImage(Image image) {
-            this.image = image;
-        }
-
-        private boolean hasNoImage() {
-            return image == null;
-        }
-
-        private Image getImage() {
-            return image;
-        }
+    public JPanel getGameBoard() {
+        return gameBoard;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 /**
  * Class to create an option pane to be displayed when a game is complete.
- * A message will be displayed depending on win/loss with a button allowing the
- * player to play again or quit the game.
+ * A message will be displayed depending on win/loss, along with the best times
+ * for the board, with a button allowing the player to play again or quit the
+ * game.
  * @author Amber Smith
  */
 public class GameEndGUI {
@@ -14,12 +16,17 @@ public class GameEndGUI {
     private static final ImageIcon lossImage = new ImageIcon(GameEndGUI.class.getResource("/SadLorax.png"));
 
     /**
-     * Open an option pane that will display if game was won/lost, and allow
-     * the player to start a new game or close the program
+     * Open an option pane that will display if game was won/lost and the
+     * best times, and allow the player to start a new game or close the
+     * program
      * @param gameWon whether the game was won
+     * @param topScores best leaderboard entries for the board, best first
+     * @param personalBest the player's best entry, or null if none
      * @return option pane
      */
-    public static int showGameEnd(boolean gameWon) {
+    public static int showGameEnd(boolean gameWon,
+                                  List<Leaderboard.Entry> topScores,
+                                  Leaderboard.Entry personalBest) {
         String message;
         ImageIcon image;
         if (gameWon) {
@@ -34,9 +41,22 @@ public class GameEndGUI {
         JLabel messageLabel = new JLabel(message);
         messageLabel.setFont(new Font("Arial", Font.BOLD, 24));
 
+        // list the best times under the message
+        JPanel messagePanel = new JPanel(new GridLayout(0, 1));
+        messagePanel.add(messageLabel);
+        if (!topScores.isEmpty()) {
+            messagePanel.add(new JLabel("Best Times"));
+            for (int i = 0; i < topScores.size(); i++) {
+                messagePanel.add(new JLabel((i + 1) + ". " + topScores.get(i)));
+            }
+        }
+        if (personalBest != null) {
+            messagePanel.add(new JLabel("Your Best: " + personalBest));
+        }
+
         return JOptionPane.showOptionDialog(
                 null,
-                messageLabel,
+                messagePanel,
                 gameWon ? "You Win!!!" : "Game Over",
                 JOptionPane.DEFAULT_OPTION,
                 JOptionPane.INFORMATION_MESSAGE,
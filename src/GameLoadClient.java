@@ -0,0 +1,110 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for GameServer. Opens one connection per simulated player,
+ * each playing random moves for a fixed number of moves, and reports the
+ * total moves per second and the round trip latency of each move.
+ *
+ * Usage: GameLoadClient [players] [movesPerPlayer] [rows] [cols] [mines] [port]
+ * @author Amber Smith
+ */
+public class GameLoadClient {
+
+    /** round trip latency of every move, in nanoseconds */
+    private static final GameMetrics.Histogram latency =
+            new GameMetrics.Histogram("moveNanos");
+
+    /** totals across all players */
+    private static final AtomicLong movesMade = new AtomicLong();
+    private static final AtomicLong gamesPlayed = new AtomicLong();
+    private static final AtomicLong failedPlayers = new AtomicLong();
+
+    /**
+     * Play random moves against the server until the move budget is spent
+     * @param port server port
+     * @param moves number of moves to make
+     * @param rows rows for each game
+     * @param cols columns for each game
+     * @param mines mines for each game
+     * @throws IOException if the connection fails
+     */
+    private static void play(int port, int moves, int rows, int cols,
+                             int mines) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            byte status = GameServer.WON;
+            for (int i = 0; i < moves; i++) {
+                long start = System.nanoTime();
+                if (status != GameServer.PLAYING) {
+                    out.writeByte(GameServer.NEW_GAME);
+                    out.writeInt(rows);
+                    out.writeInt(cols);
+                    out.writeInt(mines);
+                    gamesPlayed.incrementAndGet();
+                } else {
+                    out.writeByte(random.nextInt(8) == 0 ?
+                            GameServer.FLAG : GameServer.UNCOVER);
+                    out.writeInt(random.nextInt(rows * cols));
+                }
+                out.flush();
+
+                status = in.readByte();
+                int changed = in.readInt();
+                in.skipNBytes(changed * 5L);
+                latency.record(System.nanoTime() - start);
+                movesMade.incrementAndGet();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int moves = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 14;
+        int cols = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        int mines = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+        int port = args.length > 5 ?
+                Integer.parseInt(args[5]) : GameServer.defaultPort;
+
+        ExecutorService executor = GameServer.newThreadPerTaskExecutor();
+        CountDownLatch done = new CountDownLatch(players);
+        long start = System.nanoTime();
+        for (int p = 0; p < players; p++) {
+            executor.execute(() -> {
+                try {
+                    play(port, moves, rows, cols, mines);
+                } catch (IOException e) {
+                    failedPlayers.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("players=%d failed=%d games=%d moves=%d%n", players,
+                failedPlayers.get(), gamesPlayed.get(), movesMade.get());
+        System.out.printf("moves/sec=%.0f%n", movesMade.get() / seconds);
+        System.out.printf("latency us p50=%.1f p99=%.1f max=%.1f%n",
+                latency.getP50() / 1e3, latency.getP99() / 1e3,
+                latency.getMax() / 1e3);
+    }
+}
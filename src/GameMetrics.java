@@ -0,0 +1,295 @@
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class to collect timing and size metrics from the hot paths of the game.
+ * Metrics are off unless the JVM is started with -Dminesweeper.metrics=true.
+ * When on, each histogram is registered with JMX and, if
+ * -Dminesweeper.metrics.dumpSeconds is set, a text report is printed at that
+ * interval. Board pool hits and misses are counted the same way. When off,
+ * recording is a single check of a static final flag.
+ * @author Amber Smith
+ */
+public class GameMetrics {
+
+    /** whether metrics are being recorded */
+    public static final boolean enabled =
+            Boolean.getBoolean("minesweeper.metrics");
+
+    /** histograms for each of the measured hot paths */
+    public static final Histogram uncoverNanos = new Histogram("uncoverNanos");
+    public static final Histogram cascadeCells = new Histogram("cascadeCells");
+    public static final Histogram clickNanos = new Histogram("clickNanos");
+    public static final Histogram paintNanos = new Histogram("paintNanos");
+    public static final Histogram cellsPainted = new Histogram("cellsPainted");
+    public static final Histogram generationNanos =
+            new Histogram("generationNanos");
+    public static final Histogram musicNanos = new Histogram("musicNanos");
+    public static final Histogram resourceNanos =
+            new Histogram("resourceNanos");
+    public static final Histogram poolRefillNanos =
+            new Histogram("poolRefillNanos");
+
+    private static final Histogram[] all = {uncoverNanos, cascadeCells,
+            clickNanos, paintNanos, cellsPainted, generationNanos, musicNanos,
+            resourceNanos, poolRefillNanos};
+
+    /** board pool takes served from a pool, and made on the spot */
+    public static final PoolCounter boardPool = new PoolCounter();
+
+    static {
+        if (enabled) {
+            register();
+            long dumpSeconds =
+                    Long.getLong("minesweeper.metrics.dumpSeconds", 0);
+            if (dumpSeconds > 0) {
+                ScheduledExecutorService dumper =
+                        Executors.newSingleThreadScheduledExecutor(r -> {
+                            Thread t = new Thread(r, "metrics-dump");
+                            t.setDaemon(true);
+                            return t;
+                        });
+                dumper.scheduleAtFixedRate(() -> System.out.print(report()),
+                        dumpSeconds, dumpSeconds, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Get a start time for a measurement
+     * @return the current nano time, or 0 if metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time since a start time returned by start
+     * @param histogram histogram to record into
+     * @param start start time of the measurement
+     */
+    public static void stop(Histogram histogram, long start) {
+        if (enabled) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record a size or count
+     * @param histogram histogram to record into
+     * @param value value to record
+     */
+    public static void count(Histogram histogram, long value) {
+        if (enabled) {
+            histogram.record(value);
+        }
+    }
+
+    /**
+     * Count a layout taken from the board pool
+     * @param hit true if the layout was ready in a pool
+     */
+    public static void poolTake(boolean hit) {
+        if (enabled) {
+            (hit ? boardPool.hits : boardPool.misses).incrementAndGet();
+        }
+    }
+
+    /**
+     * Create a text report of every histogram and the board pool hit rate
+     * @return one line per histogram, then one for the board pool
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        for (Histogram h : all) {
+            report.append(String.format(
+                    "%-16s count=%d mean=%.1f p50=%d p99=%d max=%d%n",
+                    h.name, h.getCount(), h.getMean(), h.getP50(), h.getP99(),
+                    h.getMax()));
+        }
+        report.append(String.format(
+                "%-16s hits=%d misses=%d hit rate=%.1f%%%n", "boardPool",
+                boardPool.getHits(), boardPool.getMisses(),
+                100 * boardPool.getHitRate()));
+        return report.toString();
+    }
+
+    /**
+     * Register each histogram with the platform MBean server
+     */
+    private static void register() {
+        try {
+            for (Histogram h : all) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(h,
+                        new ObjectName("Minesweeper:type=Metrics,name="
+                                + h.name));
+            }
+            ManagementFactory.getPlatformMBeanServer().registerMBean(boardPool,
+                    new ObjectName("Minesweeper:type=Metrics,name=boardPool"));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * JMX view of a histogram
+     */
+    public interface HistogramMXBean {
+        long getCount();
+        double getMean();
+        long getP50();
+        long getP99();
+        long getMax();
+        void reset();
+    }
+
+    /**
+     * JMX view of the board pool counts
+     */
+    public interface PoolCounterMXBean {
+        long getHits();
+        long getMisses();
+        double getHitRate();
+        void reset();
+    }
+
+    /**
+     * Counts of board pool takes served from a pool and made on the spot
+     */
+    public static class PoolCounter implements PoolCounterMXBean {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        @Override
+        public long getHits() {
+            return hits.get();
+        }
+
+        @Override
+        public long getMisses() {
+            return misses.get();
+        }
+
+        @Override
+        public double getHitRate() {
+            long hit = hits.get();
+            long total = hit + misses.get();
+            return total == 0 ? 0 : (double) hit / total;
+        }
+
+        @Override
+        public void reset() {
+            hits.set(0);
+            misses.set(0);
+        }
+    }
+
+    /**
+     * Lock-free histogram with power of two buckets. Bucket i holds values
+     * with i significant bits, so percentiles are upper bounds within 2x.
+     */
+    public static class Histogram implements HistogramMXBean {
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(65);
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        public Histogram(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Add a value to the histogram
+         * @param value value to add, negative values count as 0
+         */
+        public void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+            sum.addAndGet(value);
+            long oldMax = max.get();
+            while (value > oldMax && !max.compareAndSet(oldMax, value)) {
+                oldMax = max.get();
+            }
+        }
+
+        /**
+         * Add every value recorded by another histogram to this one
+         * @param other histogram to add
+         */
+        public void add(Histogram other) {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.addAndGet(i, other.buckets.get(i));
+            }
+            sum.addAndGet(other.sum.get());
+            long otherMax = other.max.get();
+            long oldMax = max.get();
+            while (otherMax > oldMax && !max.compareAndSet(oldMax, otherMax)) {
+                oldMax = max.get();
+            }
+        }
+
+        @Override
+        public long getCount() {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        @Override
+        public double getMean() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) sum.get() / count;
+        }
+
+        @Override
+        public long getP50() {
+            return percentile(0.50);
+        }
+
+        @Override
+        public long getP99() {
+            return percentile(0.99);
+        }
+
+        @Override
+        public long getMax() {
+            return max.get();
+        }
+
+        @Override
+        public void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            sum.set(0);
+            max.set(0);
+        }
+
+        /**
+         * Find the upper bound of the bucket holding the given percentile
+         * @param fraction percentile between 0 and 1
+         * @return upper bound of the bucket, capped at the max seen
+         */
+        private long percentile(double fraction) {
+            long target = (long) Math.ceil(getCount() * fraction);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen > 0) {
+                    long bound = (i >= 63) ? Long.MAX_VALUE : (1L << i) - 1;
+                    return Math.min(bound, getMax());
+                }
+            }
+            return 0;
+        }
+    }
+}
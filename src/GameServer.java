@@ -0,0 +1,222 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local game server that hosts many headless games at once over TCP on the
+ * loopback address. Each connection is one session with its own
+ * HexMineManager, served by its own thread.
+ *
+ * Requests are a one byte op code followed by its arguments:
+ * NEW_GAME (int rows, int cols, int mines), UNCOVER and FLAG (int cell),
+ * UNDO and REDO (no arguments). Cells are flat indexes, row * cols + col.
+ * Every request gets a reply of one status byte, an int count of changed
+ * cells, and then count pairs of (int cell, byte state) using the same
+ * characters as HexMineManager.grid. Boards bigger than maxCells, and moves
+ * after a game is won or lost, get an ERROR or are ignored.
+ * @author Amber Smith
+ */
+public class GameServer {
+
+    /** op codes for requests */
+    public static final byte NEW_GAME = 0;
+    public static final byte UNCOVER = 1;
+    public static final byte FLAG = 2;
+    public static final byte UNDO = 3;
+    public static final byte REDO = 4;
+
+    /** status codes for replies */
+    public static final byte PLAYING = 0;
+    public static final byte WON = 1;
+    public static final byte LOST = 2;
+    public static final byte ERROR = 3;
+
+    /** default port for the server */
+    public static final int defaultPort = 7373;
+
+    /** most cells a board on the server may have */
+    public static final int maxCells = 1 << 20;
+
+    /**
+     * Create an executor that runs each task on its own thread. Virtual
+     * threads are used when the JVM supports them (Java 21+), otherwise a
+     * cached pool of platform threads.
+     * @return executor with one thread per task
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "game-session");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Accept connections forever, starting a session for each
+     * @param port port to listen on
+     * @throws IOException if the server socket cannot be opened
+     */
+    public static void serve(int port) throws IOException {
+        ExecutorService sessions = newThreadPerTaskExecutor();
+        try (ServerSocket server = new ServerSocket(port, 1024,
+                InetAddress.getLoopbackAddress())) {
+            System.out.println("Minesweeper server listening on port " + port);
+            while (true) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                sessions.execute(() -> runSession(socket));
+            }
+        }
+    }
+
+    /**
+     * Serve requests for one connection until the client disconnects
+     * @param socket connection to the client
+     */
+    private static void runSession(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+            Session session = new Session();
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                session.handle(op, in, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client went away, nothing more to do for this session
+        }
+    }
+
+    /**
+     * Game state for one connection
+     */
+    private static class Session {
+        private HexMineManager game;
+        private boolean lost = false;
+        private boolean won = false;
+
+        /**
+         * Read the arguments of a request, apply it, and write the reply
+         * @param op op code of the request
+         * @param in stream to read arguments from
+         * @param out stream to write the reply to
+         * @throws IOException if the connection fails
+         */
+        private void handle(byte op, DataInputStream in, DataOutputStream out)
+                throws IOException {
+            if (op == NEW_GAME) {
+                int rows = in.readInt();
+                int cols = in.readInt();
+                int mines = in.readInt();
+                if (rows <= 0 || cols <= 0 || mines < 0 ||
+                        (long) rows * cols > maxCells ||
+                        mines > (long) rows * cols) {
+                    game = null;
+                    writeHeader(out, ERROR, 0);
+                    return;
+                }
+                game = new HexMineManager(mines, rows, cols);
+                lost = false;
+                won = false;
+                writeHeader(out, PLAYING, 0);
+                return;
+            }
+
+            int cell = (op == UNCOVER || op == FLAG) ? in.readInt() : 0;
+            if (game == null || cell < 0 || cell >= game.rows * game.cols) {
+                writeHeader(out, ERROR, 0);
+                return;
+            }
+
+            int before = game.logPosition();
+            int row = cell / game.cols;
+            int col = cell % game.cols;
+            boolean over = lost || won;
+            switch (op) {
+                case UNCOVER:
+                    if (!over && game.uncover(row, col) == 'M') {
+                        lost = true;
+                    }
+                    break;
+                case FLAG:
+                    if (!over) {
+                        game.toggleFlag(row, col);
+                    }
+                    break;
+                case UNDO:
+                    game.undo();
+                    lost = false;
+                    break;
+                case REDO:
+                    game.redo();
+                    break;
+                default:
+                    writeHeader(out, ERROR, 0);
+                    return;
+            }
+            int after = game.logPosition();
+            if (op == REDO && hasMineShowing(before, after)) {
+                lost = true;
+            }
+            won = !lost && game.checkForWin();
+
+            byte status = lost ? LOST : won ? WON : PLAYING;
+            writeHeader(out, status, Math.abs(after - before));
+            for (int i = Math.min(before, after); i < Math.max(before, after);
+                 i++) {
+                int changed = game.loggedCell(i);
+                out.writeInt(changed);
+                out.writeByte(game.grid[changed / game.cols]
+                        [changed % game.cols]);
+            }
+        }
+
+        /**
+         * Check whether the log entries between two positions revealed a mine
+         * @param from first log entry
+         * @param to end of the log entries
+         * @return true if one of the changed cells now shows a mine
+         */
+        private boolean hasMineShowing(int from, int to) {
+            for (int i = from; i < to; i++) {
+                int changed = game.loggedCell(i);
+                if (game.grid[changed / game.cols][changed % game.cols] == 'M') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static void writeHeader(DataOutputStream out, byte status,
+                                        int count) throws IOException {
+            out.writeByte(status);
+            out.writeInt(count);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        serve(args.length > 0 ? Integer.parseInt(args[0]) : defaultPort);
+    }
+}
@@ -1,3 +1,9 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
 /**
  * HexMineManager manages the game bookkeeping for Minesweeper on a hexagonal
  * grid that is roughly rectangular.
@@ -18,6 +24,37 @@ public class HexMineManager {
     public final char[][] grid;
     public final boolean[][] hasMine;
 
+    /**
+     * Delta log of every cell change as parallel arrays of flat cell index,
+     * state before, and state after. Moves are ranges of the log, ending at
+     * the offsets stored in moveEnds. Entries past logSize and numMoves are
+     * the redo history.
+     */
+    private int[] logCells = new int[64];
+    private char[] logBefore = new char[64];
+    private char[] logAfter = new char[64];
+    private int logSize = 0;
+    private int[] moveEnds = new int[16];
+    private int numMoves = 0;
+    private int moveLimit = 0;
+
+    /** reused queue of blank cells for opening cascades */
+    private int[] queue = new int[64];
+
+    /**
+     * cascades whose queue reaches this many blank cells finish in parallel,
+     * and the cells of each level are split into chunks of this size
+     */
+    private static final int parallelFrontier = 2048;
+    private static final int cascadeChunk = 512;
+
+    /** number of cells without a mine that are still covered or flagged */
+    private int safeCellsLeft;
+
+    /** source of mine locations and the flat index of every mine */
+    private final Random random;
+    private final int[] mineCells;
+
     /**
      * Constructor for a new hex board
      * @param numMines number of mines on the board
@@ -25,9 +62,33 @@ public class HexMineManager {
      * @param cols number of columns
      */
     public HexMineManager(int numMines, int rows, int cols) {
+        this(numMines, rows, cols, new Random());
+    }
+
+    /**
+     * Constructor for a new hex board with a repeatable mine layout
+     * @param numMines number of mines on the board
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param seed seed for placing the mines, equal seeds give equal boards
+     */
+    public HexMineManager(int numMines, int rows, int cols, long seed) {
+        this(numMines, rows, cols, new Random(seed));
+    }
+
+    /**
+     * Helper constructor that places mines using the given random numbers
+     * @param numMines number of mines on the board
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param random source of mine locations
+     */
+    private HexMineManager(int numMines, int rows, int cols, Random random) {
         this.numMines = numMines;
         this.rows = rows;
         this.cols = cols;
+        this.random = random;
+        this.mineCells = new int[numMines];
 
         // initialize the covered grid
         grid = new char[rows][cols];
@@ -45,20 +106,87 @@ public class HexMineManager {
             }
         }
 
-        // add in specified number of mines at random location
+        placeMines();
+    }
+
+    /**
+     * Add in the specified number of mines at random locations
+     */
+    private void placeMines() {
+        long start = GameMetrics.start();
         int n = 0;
         while (n < numMines) {
-            int ranRow = (int)(Math.random() * rows);
-            int ranCol = (int)(Math.random() * cols);
+            int ranRow = random.nextInt(rows);
+            int ranCol = random.nextInt(cols);
             if (!hasMine[ranRow][ranCol]) {
                 hasMine[ranRow][ranCol] = true;
+                mineCells[n] = ranRow * cols + ranCol;
                 n++;
             }
         }
+        GameMetrics.stop(GameMetrics.generationNanos, start);
+        safeCellsLeft = rows * cols - numMines;
+    }
+
+    /**
+     * Start a new game on the same board with a mine layout made ahead of
+     * time by generateMines. Only the cells in the delta log and the old
+     * mines are touched, and the log's buffers are kept for the new game.
+     * @param mines flat index of each mine, numMines of them
+     */
+    public void reset(int[] mines) {
+        clearBoard();
+        System.arraycopy(mines, 0, mineCells, 0, numMines);
+        for (int cell : mineCells) {
+            hasMine[cell / cols][cell % cols] = true;
+        }
+        safeCellsLeft = rows * cols - numMines;
+    }
+
+    /**
+     * Helper method to reset that covers every changed cell, removes the
+     * mines, and empties the delta log
+     */
+    private void clearBoard() {
+        for (int i = 0; i < logSize; i++) {
+            grid[logCells[i] / cols][logCells[i] % cols] = covered;
+        }
+        for (int cell : mineCells) {
+            hasMine[cell / cols][cell % cols] = false;
+        }
+        logSize = 0;
+        numMoves = 0;
+        moveLimit = 0;
+    }
+
+    /**
+     * Make a random mine layout without a board, so layouts can be made
+     * ahead of time and passed to reset
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param numMines number of mines
+     * @param random source of mine locations
+     * @return flat index of each mine
+     */
+    public static int[] generateMines(int rows, int cols, int numMines,
+                                      Random random) {
+        int size = rows * cols;
+        boolean[] taken = new boolean[size];
+        int[] mines = new int[numMines];
+        int n = 0;
+        while (n < numMines) {
+            int cell = random.nextInt(size);
+            if (!taken[cell]) {
+                taken[cell] = true;
+                mines[n++] = cell;
+            }
+        }
+        return mines;
     }
 
     /**
-     * Create a roughly rectangular hexagonal grid string representation
+     * Create a roughly rectangular hexagonal grid string representation. Use
+     * BoardRenderer to stream large boards instead of building one string.
      * @return the string representation
      */
     @Override
@@ -83,23 +211,48 @@ public class HexMineManager {
      */
     public void toggleFlag(int row, int col) {
         if (grid[row][col] == flagged) {
-            grid[row][col] = covered;
+            setCell(row, col, covered);
         } else if (grid[row][col] == covered) {
-            grid[row][col] = flagged;
+            setCell(row, col, flagged);
         }
+        endMove();
     }
 
     /**
      * Create 6 directional vectors to check the cells adjacent to the current
      * cell. Directions change based on whether the row is even or odd due to
-     * the grid's hexagonal setup.
+     * the grid's hexagonal setup. The arrays are shared and must not be
+     * changed.
      * @param col the col of the current cell
      * @return the directional vectors to be added to the cell's row and col
      */
-    private static int[][] neighbors(int col) {
-        return (col % 2 == 0) ?
-                new int[][]{{-1,-1},{-1,0},{-1,1},{0,-1},{1,0},{0,1}}:
-                new int[][]{{0,-1},{-1,0},{0,1},{1,-1},{1,0},{1,1}};
+    static int[][] neighbors(int col) {
+        return (col % 2 == 0) ? evenNeighbors : oddNeighbors;
+    }
+
+    /** directional vectors for even and odd columns, shared by every call */
+    private static final int[][] evenNeighbors =
+            {{-1,-1},{-1,0},{-1,1},{0,-1},{1,0},{0,1}};
+    private static final int[][] oddNeighbors =
+            {{0,-1},{-1,0},{0,1},{1,-1},{1,0},{1,1}};
+
+    /**
+     * Count the mines adjacent to a cell
+     * @param row cell row
+     * @param col cell column
+     * @return number of mine neighbors
+     */
+    private int countMineNeighbors(int row, int col) {
+        int mineNeighbors = 0;
+        for (int[] dir : neighbors(col)) {
+            int adjRow = row + dir[0];
+            int adjCol = col + dir[1];
+
+            if (adjRow >= 0 && adjRow < rows && adjCol >= 0 && adjCol < cols) {
+                if (hasMine[adjRow][adjCol]) mineNeighbors++;
+            }
+        }
+        return mineNeighbors;
     }
 
     /**
@@ -111,50 +264,217 @@ public class HexMineManager {
      * @return character that represents the state of the cell
      */
     public char uncover(int row, int col) {
-        // don't uncover a cell if flagged or already uncovered
+        long start = GameMetrics.start();
+        int logStart = logSize;
+        char state = uncoverCell(row, col);
+        GameMetrics.count(GameMetrics.cascadeCells, logSize - logStart);
+        endMove();
+        GameMetrics.stop(GameMetrics.uncoverNanos, start);
+        return state;
+    }
+
+    /**
+     * Helper method to uncover that does the recursive work, so the whole
+     * cascade is recorded as a single move.
+     * @param row cell row
+     * @param col cell column
+     * @return character that represents the state of the cell
+     */
+    private char uncoverCell(int row, int col) {
+        // don't uncover a cell if flagged or already uncovered, including
+        // a mine that is already showing
         char uncovered = '.';
-        if (grid[row][col] == flagged || grid[row][col] == uncovered ||
-                (grid[row][col] >= '1' && grid[row][col] <= '6')) {
+        if (grid[row][col] != covered) {
             return grid[row][col];
         }
 
         // if the cell contains a mine, uncover all un-mined cells.
         if (hasMine[row][col]) {
             char mine = 'M';
-            grid[row][col] = mine;
+            setCell(row, col, mine);
             revealCells();
             return grid[row][col];
         }
 
         // count how many mine neighbors the cell has
-        int mineNeighbors = 0;
-        int[][] directions = neighbors(col);
-        for (int[] dir : directions) {
-            int adjRow = row + dir[0];
-            int adjCol = col + dir[1];
-
-            if (adjRow >= 0 && adjRow < rows && adjCol >= 0 && adjCol < cols) {
-                if (hasMine[adjRow][adjCol]) mineNeighbors++;
-            }
-        }
+        int mineNeighbors = countMineNeighbors(row, col);
 
         // reveal the number of mine neighbors if there are any
         if (mineNeighbors > 0) {
-            grid[row][col] = (char) ('0' + mineNeighbors);
+            setCell(row, col, (char) ('0' + mineNeighbors));
             return grid[row][col];
         }
 
         // if there are no mine neighbors, uncover other neighbors
-        grid[row][col] = uncovered;
-        for (int[] dir : directions) {
-            int adjRow = row + dir[0];
-            int adjCol = col + dir[1];
+        setCell(row, col, uncovered);
+        cascade(row * cols + col);
+        return grid[row][col];
+    }
 
-            if (adjRow>=0 && adjRow<rows && adjCol>=0 && adjCol<cols) {
-                uncover(adjRow,adjCol);
+    /**
+     * Helper method to uncoverCell that opens every cell reachable from a
+     * blank cell, breadth first. Neighbors of a blank cell never have mines,
+     * so each covered neighbor is uncovered, and blank ones join the queue.
+     * If the queue grows past parallelFrontier the rest of the opening is
+     * handed to parallelCascade.
+     * @param start flat index of a blank cell that was just uncovered
+     */
+    private void cascade(int start) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            if (tail - head >= parallelFrontier &&
+                    ForkJoinPool.getCommonPoolParallelism() > 1) {
+                parallelCascade(Arrays.copyOfRange(queue, head, tail));
+                return;
+            }
+
+            int cell = queue[head++];
+            int row = cell / cols;
+            int col = cell % cols;
+            for (int[] dir : neighbors(col)) {
+                int adjRow = row + dir[0];
+                int adjCol = col + dir[1];
+
+                if (adjRow>=0 && adjRow<rows && adjCol>=0 && adjCol<cols &&
+                        grid[adjRow][adjCol] == covered) {
+                    int mineNeighbors = countMineNeighbors(adjRow, adjCol);
+                    setCell(adjRow, adjCol, mineNeighbors == 0 ?
+                            '.' : (char) ('0' + mineNeighbors));
+                    if (mineNeighbors == 0) {
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail * 2);
+                        }
+                        queue[tail++] = adjRow * cols + adjCol;
+                    }
+                }
             }
         }
-        return grid[row][col];
+    }
+
+    /**
+     * Helper method to cascade that opens the rest of a large opening one
+     * level at a time on the fork/join common pool. Each level's blank
+     * cells are split into chunks, and a covered neighbor is uncovered by
+     * whichever chunk first claims it with a compare-and-set on its bit in
+     * a shared bitmap. The cells each chunk uncovered are then added to the
+     * delta log in chunk order. Uncovers the same cells as the sequential
+     * path, only the order in the log differs.
+     * @param frontier flat indexes of blank cells whose neighbors are next
+     */
+    private void parallelCascade(int[] frontier) {
+        AtomicIntegerArray claimed =
+                new AtomicIntegerArray((rows * cols + 31) / 32);
+        int opened = 0;
+
+        while (frontier.length > 0) {
+            int[] level = frontier;
+            int chunks = (level.length + cascadeChunk - 1) / cascadeChunk;
+            Chunk[] results = new Chunk[chunks];
+            IntStream.range(0, chunks).parallel().forEach(c -> results[c] =
+                    openChunk(level, c * cascadeChunk,
+                            Math.min(level.length, (c + 1) * cascadeChunk),
+                            claimed));
+
+            // add the uncovered cells to the log and gather the next level
+            int revealed = 0;
+            int blanks = 0;
+            for (Chunk chunk : results) {
+                revealed += chunk.numCells;
+                blanks += chunk.numBlanks;
+            }
+            ensureLogCapacity(revealed);
+            frontier = new int[blanks];
+            blanks = 0;
+            for (Chunk chunk : results) {
+                System.arraycopy(chunk.cells, 0, logCells, logSize,
+                        chunk.numCells);
+                System.arraycopy(chunk.states, 0, logAfter, logSize,
+                        chunk.numCells);
+                Arrays.fill(logBefore, logSize, logSize + chunk.numCells,
+                        covered);
+                logSize += chunk.numCells;
+                System.arraycopy(chunk.blanks, 0, frontier, blanks,
+                        chunk.numBlanks);
+                blanks += chunk.numBlanks;
+            }
+            opened += revealed;
+        }
+
+        // none of the opened cells have mines
+        safeCellsLeft -= opened;
+    }
+
+    /**
+     * Helper method to parallelCascade that uncovers the covered neighbors
+     * of part of one level of blank cells
+     * @param level blank cells of the current level
+     * @param from first index into level, inclusive
+     * @param to last index into level, exclusive
+     * @param claimed one bit per cell, set by the chunk that uncovers it
+     * @return the cells this chunk uncovered
+     */
+    private Chunk openChunk(int[] level, int from, int to,
+                            AtomicIntegerArray claimed) {
+        Chunk chunk = new Chunk((to - from) * 6);
+        for (int k = from; k < to; k++) {
+            int row = level[k] / cols;
+            int col = level[k] % cols;
+            for (int[] dir : neighbors(col)) {
+                int adjRow = row + dir[0];
+                int adjCol = col + dir[1];
+                if (adjRow < 0 || adjRow >= rows || adjCol < 0 ||
+                        adjCol >= cols || grid[adjRow][adjCol] != covered) {
+                    continue;
+                }
+
+                // claim the cell so no other chunk uncovers it too
+                int cell = adjRow * cols + adjCol;
+                int bit = 1 << (cell & 31);
+                int word = claimed.get(cell >>> 5);
+                boolean won = false;
+                while ((word & bit) == 0) {
+                    if (claimed.compareAndSet(cell >>> 5, word, word | bit)) {
+                        won = true;
+                        break;
+                    }
+                    word = claimed.get(cell >>> 5);
+                }
+                if (!won) {
+                    continue;
+                }
+
+                int mineNeighbors = countMineNeighbors(adjRow, adjCol);
+                char state = mineNeighbors == 0 ?
+                        '.' : (char) ('0' + mineNeighbors);
+                grid[adjRow][adjCol] = state;
+                chunk.cells[chunk.numCells] = cell;
+                chunk.states[chunk.numCells++] = state;
+                if (mineNeighbors == 0) {
+                    chunk.blanks[chunk.numBlanks++] = cell;
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Nested class for the cells one chunk of parallelCascade uncovered
+     */
+    private static class Chunk {
+        final int[] cells;
+        final char[] states;
+        final int[] blanks;
+        int numCells = 0;
+        int numBlanks = 0;
+
+        private Chunk(int capacity) {
+            cells = new int[capacity];
+            states = new char[capacity];
+            blanks = new int[capacity];
+        }
     }
 
     /**
@@ -164,24 +484,255 @@ public class HexMineManager {
     private void revealCells() {
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                if (!hasMine[i][j]) uncover(i,j);
+                if (!hasMine[i][j]) uncoverCell(i,j);
             }
         }
     }
 
     /**
-     * Check for a win by determining if the cell is covered or flagged and if
-     * the cell has a mine
-     * @return false if the game has not been won, true otherwise
+     * Rate the difficulty of the board by its 3BV, the fewest clicks needed
+     * to clear it: each opening of connected blank cells counts once, as
+     * does each numbered cell not next to an opening. Openings are found
+     * with a union-find over flat cell indexes in one pass, after one pass
+     * to count mine neighbors, so the cost is nearly linear in board size.
+     * @return minimum number of clicks to win
      */
-    public boolean checkForWin() {
+    public int minimumClicks() {
+        int size = rows * cols;
+        byte[] counts = new byte[size];
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                if((grid[i][j] == 'c' || grid[i][j] == 'F') && !hasMine[i][j]){
-                    return false;
+                counts[i * cols + j] = hasMine[i][j] ?
+                        -1 : (byte) countMineNeighbors(i, j);
+            }
+        }
+
+        int[] parent = new int[size];
+        int clicks = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                int cell = i * cols + j;
+                if (counts[cell] < 0) {
+                    continue;
+                }
+                parent[cell] = cell;
+                boolean nextToBlank = false;
+                int[][] directions = neighbors(j);
+
+                for (int[] dir : directions) {
+                    int adjRow = i + dir[0];
+                    int adjCol = j + dir[1];
+                    if (adjRow < 0 || adjRow >= rows ||
+                            adjCol < 0 || adjCol >= cols) {
+                        continue;
+                    }
+                    int adj = adjRow * cols + adjCol;
+                    if (counts[adj] != 0) {
+                        continue;
+                    }
+                    nextToBlank = true;
+
+                    // join two blank cells, merging openings seen earlier
+                    if (counts[cell] == 0 && adj < cell &&
+                            union(parent, cell, adj)) {
+                        clicks--;
+                    }
+                }
+
+                // a blank starts a new opening, a number alone needs a click
+                if (counts[cell] == 0 || !nextToBlank) {
+                    clicks++;
                 }
             }
         }
+        return clicks;
+    }
+
+    /**
+     * Helper method to minimumClicks that finds the root of a cell's set,
+     * halving the path along the way
+     * @param parent parent of each cell in the union-find
+     * @param cell flat cell index
+     * @return root of the cell's set
+     */
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * Helper method to minimumClicks that joins the sets of two cells
+     * @param parent parent of each cell in the union-find
+     * @param a flat index of the first cell
+     * @param b flat index of the second cell
+     * @return true if the cells were in different sets
+     */
+    private static boolean union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) {
+            return false;
+        }
+        parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        return true;
+    }
+
+    /**
+     * Check for a win by determining if every cell without a mine has been
+     * uncovered. The count of safe cells left is kept as cells change, so
+     * this takes constant time.
+     * @return false if the game has not been won, true otherwise
+     */
+    public boolean checkForWin() {
+        return safeCellsLeft == 0;
+    }
+
+    /**
+     * Change the state of a cell and record the change in the delta log.
+     * Recording a change drops any moves that could have been redone.
+     * @param row cell row
+     * @param col cell column
+     * @param state new character for the cell
+     */
+    private void setCell(int row, int col, char state) {
+        ensureLogCapacity(1);
+        logCells[logSize] = row * cols + col;
+        logBefore[logSize] = grid[row][col];
+        logAfter[logSize] = state;
+        logSize++;
+        moveLimit = numMoves;
+
+        applyState(row, col, state);
+    }
+
+    /**
+     * Grow the delta log so it can hold more entries
+     * @param extra number of entries about to be added
+     */
+    private void ensureLogCapacity(int extra) {
+        if (logSize + extra > logCells.length) {
+            int newLength = Math.max(logCells.length * 2, logSize + extra);
+            logCells = Arrays.copyOf(logCells, newLength);
+            logBefore = Arrays.copyOf(logBefore, newLength);
+            logAfter = Arrays.copyOf(logAfter, newLength);
+        }
+    }
+
+    /**
+     * Write a cell's state into the grid, keeping count of the safe cells
+     * left to uncover
+     * @param row cell row
+     * @param col cell column
+     * @param state new character for the cell
+     */
+    private void applyState(int row, int col, char state) {
+        if (!hasMine[row][col]) {
+            boolean wasCovered = isCovered(grid[row][col]);
+            boolean nowCovered = isCovered(state);
+            if (wasCovered && !nowCovered) {
+                safeCellsLeft--;
+            } else if (!wasCovered && nowCovered) {
+                safeCellsLeft++;
+            }
+        }
+        grid[row][col] = state;
+    }
+
+    /**
+     * Check whether a state is covered or flagged
+     * @param state character for a cell
+     * @return true if the cell has not been uncovered
+     */
+    private boolean isCovered(char state) {
+        return state == covered || state == flagged;
+    }
+
+    /**
+     * Close the current move in the delta log. Calls that changed no cells
+     * do not count as a move.
+     */
+    private void endMove() {
+        int start = (numMoves == 0) ? 0 : moveEnds[numMoves - 1];
+        if (logSize == start) {
+            return;
+        }
+        if (numMoves == moveEnds.length) {
+            moveEnds = Arrays.copyOf(moveEnds, numMoves * 2);
+        }
+        moveEnds[numMoves++] = logSize;
+        moveLimit = numMoves;
+    }
+
+    /**
+     * Get the number of logged cell changes currently applied to the board.
+     * Comparing this before and after a move, undo, or redo gives the range
+     * of log entries whose cells changed.
+     * @return current position in the delta log
+     */
+    public int logPosition() {
+        return logSize;
+    }
+
+    /**
+     * Get the cell changed by an entry of the delta log
+     * @param entry index into the log, below the furthest position reached
+     * @return flat cell index, row * cols + col
+     */
+    public int loggedCell(int entry) {
+        return logCells[entry];
+    }
+
+    /**
+     * Check whether there is a move that can be undone
+     * @return true if undo will change the board
+     */
+    public boolean canUndo() {
+        return numMoves > 0;
+    }
+
+    /**
+     * Check whether there is an undone move that can be redone
+     * @return true if redo will change the board
+     */
+    public boolean canRedo() {
+        return numMoves < moveLimit;
+    }
+
+    /**
+     * Undo the last move, restoring every cell it changed including whole
+     * cascades. Costs time proportional to the number of cells changed.
+     * @return false if there was no move to undo, true otherwise
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        numMoves--;
+        int start = (numMoves == 0) ? 0 : moveEnds[numMoves - 1];
+        for (int i = logSize - 1; i >= start; i--) {
+            applyState(logCells[i] / cols, logCells[i] % cols, logBefore[i]);
+        }
+        logSize = start;
+        return true;
+    }
+
+    /**
+     * Redo the last undone move
+     * @return false if there was no move to redo, true otherwise
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        int end = moveEnds[numMoves];
+        for (int i = logSize; i < end; i++) {
+            applyState(logCells[i] / cols, logCells[i] % cols, logAfter[i]);
+        }
+        logSize = end;
+        numMoves++;
         return true;
     }
-}
\ No newline at end of file
+}
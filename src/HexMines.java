@@ -19,14 +19,46 @@ public class HexMines extends JFrame {
     /** difficulty setting of the game */
     private static String difficulty = "Easy";
 
-    /** JPanel to represent the game board and the frame for GUI */
-    private static JPanel gameBoard;
+    /**
+     * component holding the game board, the board panel itself or a scroll
+     * pane around it for custom boards, and the frame for GUI
+     */
+    private static JComponent gameBoard;
     public static JFrame frame;
 
+    /** game board in use, and the boards kept for each difficulty */
+    private static GameBoardGUI board;
+    private static GameBoardGUI easyBoard;
+    private static GameBoardGUI hardBoard;
+    private static GameBoardGUI customBoard;
+
+    /**
+     * whether the board about to be shown was just made, so its mines are
+     * already placed and it needs no new game
+     */
+    private static boolean freshBoard = false;
+
+    /** panel and label for the number of mines, and the difficulty button */
+    private static JPanel numMinesPanel;
+    private static JLabel mineLabel;
+    private static JButton setDifficulty;
+
     /** rows, columns, size, and number of mines for an easy and hard grid */
     private static final int[] easyGrid = new int[]{10, 12, 30, 15};
     private static final int[] hardGrid = new int[]{14, 16, 30, 30};
 
+    /**
+     * rows, columns, size, and number of mines for the custom grid in use,
+     * or null if there is none
+     */
+    private static int[] customGrid;
+
+    /** most cells allowed on a custom grid */
+    private static final int maxCustomCells = 1 << 24;
+
+    /** smallest frame width that leaves room for the top panels */
+    private static final int minFrameWidth = 570;
+
     /** width and height for frame, assuming starting in an easy game */
     private static int frameWidth = 570;
     private static int frameHeight = 630;
@@ -47,18 +79,104 @@ public class HexMines extends JFrame {
 
     /**
      * Set up the board for a game, smaller for an easy game and bigger for
-     * a hard game
+     * a hard game, or the size chosen for a custom game. Each board is made
+     * the first time its difficulty is played and kept for later games.
      */
     private static void getGameBoard() {
-        GameBoardGUI grid;
         if (difficulty.equals("Easy")) {
-            grid = new GameBoardGUI
-                    (easyGrid[0], easyGrid[1], easyGrid[2], easyGrid[3]);
+            if (easyBoard == null) {
+                easyBoard = new GameBoardGUI
+                        (easyGrid[0], easyGrid[1], easyGrid[2], easyGrid[3]);
+                freshBoard = true;
+            }
+            board = easyBoard;
+        } else if (difficulty.equals("Hard")) {
+            if (hardBoard == null) {
+                hardBoard = new GameBoardGUI
+                        (hardGrid[0], hardGrid[1], hardGrid[2], hardGrid[3]);
+                freshBoard = true;
+            }
+            board = hardBoard;
         } else {
-            grid = new GameBoardGUI
-                    (hardGrid[0], hardGrid[1], hardGrid[2], hardGrid[3]);
+            board = customBoard;
+            JScrollPane scroll = new JScrollPane(board.getGameBoard());
+            scroll.setBorder(null);
+            gameBoard = scroll;
+            return;
+        }
+        gameBoard = board.getGameBoard();
+    }
+
+    /**
+     * Ask for the size of a custom game and make its board, with the hex
+     * size chosen to fit the board on the screen
+     * @return true if a valid size was entered, false otherwise
+     */
+    private static boolean askCustomSize() {
+        JTextField rowsField = new JTextField("100", 6);
+        JTextField colsField = new JTextField("100", 6);
+        JTextField minesField = new JTextField("1500", 8);
+        JPanel sizePanel = new JPanel(new GridLayout(3, 2));
+        sizePanel.add(new JLabel("Rows"));
+        sizePanel.add(rowsField);
+        sizePanel.add(new JLabel("Columns"));
+        sizePanel.add(colsField);
+        sizePanel.add(new JLabel("Mines"));
+        sizePanel.add(minesField);
+
+        int result = JOptionPane.showConfirmDialog(frame, sizePanel,
+                "Custom Game", JOptionPane.OK_CANCEL_OPTION);
+        if (result != JOptionPane.OK_OPTION) {
+            return false;
+        }
+
+        int rows;
+        int cols;
+        int mines;
+        try {
+            rows = Integer.parseInt(rowsField.getText().trim());
+            cols = Integer.parseInt(colsField.getText().trim());
+            mines = Integer.parseInt(minesField.getText().trim());
+        } catch (NumberFormatException e) {
+            rows = 0;
+            cols = 0;
+            mines = 0;
+        }
+        if (rows < 1 || cols < 1 || (long) rows * cols > maxCustomCells ||
+                mines < 1 || mines >= (long) rows * cols) {
+            JOptionPane.showMessageDialog(frame, "Use at most " +
+                    maxCustomCells + " cells and fewer mines than cells.");
+            return false;
+        }
+
+        // fit the board into the screen below the top panels
+        Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getMaximumWindowBounds();
+        int size = GameBoardGUI.fitHexSize(rows, cols, screen.width - 40,
+                screen.height - 140);
+        releaseCustomPool();
+        customGrid = new int[]{rows, cols, size, mines};
+        BoardPool.prepare(rows, cols, mines);
+        customBoard = new GameBoardGUI(rows, cols, size, mines);
+        freshBoard = true;
+
+        Dimension boardSize = customBoard.getGameBoard().getPreferredSize();
+        frameWidth = Math.max(minFrameWidth,
+                Math.min(screen.width, boardSize.width + 40));
+        frameHeight = Math.min(screen.height, boardSize.height + 140);
+        numMines = mines;
+        return true;
+    }
+
+    /**
+     * Stop keeping mine layouts ready for the custom grid, once it is
+     * replaced or left
+     */
+    private static void releaseCustomPool() {
+        if (customGrid != null) {
+            BoardPool.release(customGrid[0], customGrid[1], customGrid[3]);
+            customGrid = null;
         }
-        gameBoard = grid.getGameBoard();
     }
 
     /**
@@ -69,19 +187,19 @@ public class HexMines extends JFrame {
         JPanel scores = new JPanel(new BorderLayout());
 
         // set up the score for number of mines on the board
-        JPanel numMines = new JPanel();
-        numMines.setBackground(topColor);
-        numMines.setPreferredSize(new Dimension(frameWidth/4,50));
+        numMinesPanel = new JPanel();
+        numMinesPanel.setBackground(topColor);
+        numMinesPanel.setPreferredSize(new Dimension(frameWidth/4,50));
 
         // set up the score to show how many flags are remaining to place
         JPanel numFlags = numFlagsObject.getPanel();
 
         // set up the text for the number of mines
-        JLabel mineLabel = new JLabel(HexMines.numMines + " Mines");
+        mineLabel = new JLabel(HexMines.numMines + " Mines");
         mineLabel.setFont(new Font("Arial", Font.BOLD, 24));
-        numMines.add(mineLabel);
+        numMinesPanel.add(mineLabel);
 
-        scores.add(numMines, BorderLayout.EAST);
+        scores.add(numMinesPanel, BorderLayout.EAST);
         scores.add(numFlags, BorderLayout.WEST);
 
         return scores;
@@ -101,7 +219,7 @@ public class HexMines extends JFrame {
      * @return Button to change difficulty
      */
     private static JButton getDifficulty() {
-        JButton setDifficulty = new JButton("Difficulty: " + difficulty);
+        setDifficulty = new JButton("Difficulty: " + difficulty);
         setDifficulty.setPreferredSize
                 ((new Dimension(frameWidth/4,50)));
         setDifficulty.setBackground(topColor);
@@ -116,36 +234,73 @@ public class HexMines extends JFrame {
                     frameWidth = 750;
                     frameHeight = 835;
                     numMines = hardGrid[3];
+                } else if (difficulty.equals("Hard")) {
+                    // stay on the game in progress if no custom size is given
+                    if (!askCustomSize()) {
+                        return;
+                    }
+                    difficulty = "Custom";
                 } else {
+                    releaseCustomPool();
                     difficulty = "Easy";
                     frameWidth = 570;
                     frameHeight = 630;
                     numMines = easyGrid[3];
                 }
                 setDifficulty.setText("Difficulty: " + difficulty);
-
-                // reset the frame for new difficulty
-                if (gameBoard != null) {
-                    frame.getContentPane().removeAll();
-                    timerObject = new TimerGUI(frameWidth, topColor);
-                    numFlagsObject =
-                            new NumFlagsGUI(topColor,frameWidth, numMines);
-                }
-
-                makeFrame();
-                toggleMusic();
-                frame.getContentPane().revalidate();
-                frame.getContentPane().repaint();
+                switchBoard();
             }
         });
 
         return setDifficulty;
     }
 
+    /**
+     * Swap in the board for the new difficulty and resize the top panels,
+     * keeping the rest of the frame
+     */
+    private static void switchBoard() {
+        frame.remove(gameBoard);
+        getGameBoard();
+        frame.add(gameBoard, BorderLayout.CENTER);
+        frame.setSize(frameWidth,frameHeight);
+
+        timerObject.setFrameWidth(frameWidth);
+        numFlagsObject.setFrameWidth(frameWidth);
+        numMinesPanel.setPreferredSize(new Dimension(frameWidth/4,50));
+        setDifficulty.setPreferredSize(new Dimension(frameWidth/4,50));
+        mineLabel.setText(numMines + " Mines");
+
+        if (freshBoard) {
+            freshBoard = false;
+            resetBookkeeping();
+        } else {
+            resetGame();
+        }
+        frame.getContentPane().revalidate();
+        frame.getContentPane().repaint();
+    }
+
+    /**
+     * Start the background music over from the beginning, loading it only
+     * if it has not been loaded yet
+     */
+    private static void restartMusic() {
+        if (backgroundMusic == null || !backgroundMusic.isOpen()) {
+            toggleMusic();
+            return;
+        }
+        backgroundMusic.setFramePosition(0);
+        if (!backgroundMusic.isRunning()) {
+            backgroundMusic.loop(Clip.LOOP_CONTINUOUSLY);
+        }
+    }
+
     /**
      * Start/stop background music, music is restarted when a new game begins
      */
     private static void toggleMusic() {
+        long start = GameMetrics.start();
         try {
             // stop background music if it is already playing
             if (backgroundMusic != null && backgroundMusic.isRunning()) {
@@ -167,6 +322,7 @@ public class HexMines extends JFrame {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        GameMetrics.stop(GameMetrics.musicNanos, start);
     }
 
     /**
@@ -178,6 +334,7 @@ public class HexMines extends JFrame {
         frame.setLayout(new BorderLayout());
 
         getGameBoard();
+        freshBoard = false;
         toggleMusic();
         JPanel timer = getInitialTimer();
         JPanel scores = getScores();
@@ -195,15 +352,26 @@ public class HexMines extends JFrame {
     }
 
     /**
-     * Reset the game bookkeeping for a new game
+     * Reset the game bookkeeping for a new game in place, reusing the
+     * existing panels, board, and music
      */
     public static void resetGame() {
-        timerObject = new TimerGUI(frameWidth,topColor);
-        numFlagsObject = new NumFlagsGUI(topColor,frameWidth,numMines);
-        getGameBoard();
+        board.newGame();
+        resetBookkeeping();
+    }
+
+    /**
+     * Reset the timer, flags, and music for a new game, leaving the board
+     */
+    private static void resetBookkeeping() {
+        timerObject.reset();
+        numFlagsObject.reset(numMines);
+        restartMusic();
     }
 
     public static void main(String[] args) {
+        BoardPool.prepare(easyGrid[0], easyGrid[1], easyGrid[3]);
+        BoardPool.prepare(hardGrid[0], hardGrid[1], hardGrid[3]);
         frame = new JFrame("Minesweeper");
         makeFrame();
         frame.setVisible(true);
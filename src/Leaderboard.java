@@ -0,0 +1,375 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard of won games for one board configuration. Results are appended
+ * to a file and the best ones are kept in a sorted in-memory index, so top
+ * scores take O(log n) to update and personal bests are a map lookup. All
+ * file work and index updates happen on a background thread, so recording a
+ * result never blocks the game. The file stays open while results arrive and
+ * is flushed once no more are waiting. A partly written last entry, left by
+ * a crash, is cut off when the file is loaded, and waiting results are
+ * written out before the JVM exits. When the file holds many
+ * entries that can no longer reach the leaderboard, it is rewritten in the
+ * background with only the entries worth keeping.
+ * @author Amber Smith
+ */
+public class Leaderboard {
+
+    /** number of top entries kept in the index and the file */
+    private static final int keepTop = 1000;
+
+    /** directory holding the leaderboard files */
+    private static final File directory = new File(System.getProperty(
+            "minesweeper.leaderboardDir",
+            System.getProperty("user.home") + File.separator + ".hexmines"));
+
+    /** one leaderboard per board configuration */
+    private static final Map<String, Leaderboard> boards =
+            new ConcurrentHashMap<>();
+
+    /** single background thread for all leaderboard file work */
+    private static final ThreadPoolExecutor worker = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "leaderboard");
+                t.setDaemon(true);
+                return t;
+            });
+
+    /** longest wait for waiting results to be written when the JVM exits */
+    private static final long exitWaitSeconds = 10;
+
+    /** faster times first, then more flags left, then earlier results */
+    private static final Comparator<Entry> ranking =
+            Comparator.comparingInt((Entry e) -> e.seconds)
+                    .thenComparingInt(e -> -e.flagsLeft)
+                    .thenComparingLong(e -> e.timestamp)
+                    .thenComparing(e -> e.player);
+
+    /** file for this board configuration */
+    private final File file;
+
+    /** sorted index of the top entries and each player's best entry */
+    private final TreeSet<Entry> index = new TreeSet<>(ranking);
+    private final Map<String, Entry> bests = new HashMap<>();
+
+    /** number of entries in the file, including ones compaction would drop */
+    private long entriesInFile = 0;
+
+    /** stream appending to the file, opened by the first append */
+    private DataOutputStream out;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(Leaderboard::finish, "leaderboard-exit"));
+    }
+
+    /**
+     * Get the leaderboard for a board configuration, loading it in the
+     * background the first time it is used
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param numMines number of mines
+     * @return the leaderboard for the configuration
+     */
+    public static Leaderboard forBoard(int rows, int cols, int numMines) {
+        String key = rows + "x" + cols + "-" + numMines;
+        return boards.computeIfAbsent(key, Leaderboard::new);
+    }
+
+    /**
+     * Constructor for a leaderboard, queues loading the file
+     * @param key name of the board configuration
+     */
+    private Leaderboard(String key) {
+        file = new File(directory, "leaderboard-" + key + ".dat");
+        worker.execute(this::load);
+    }
+
+    /**
+     * Record a won game for the current user
+     * @param seconds elapsed seconds of the game
+     * @param flagsLeft number of flags not placed
+     * @return result that is done once the game is in the index and file
+     */
+    public Future<?> record(int seconds, int flagsLeft) {
+        return record(System.getProperty("user.name"), seconds, flagsLeft);
+    }
+
+    /**
+     * Record a won game. Returns immediately, the result is added to the
+     * index and file in the background.
+     * @param player name of the player
+     * @param seconds elapsed seconds of the game
+     * @param flagsLeft number of flags not placed
+     * @return result that is done once the game is in the index and file
+     */
+    public Future<?> record(String player, int seconds, int flagsLeft) {
+        Entry entry = new Entry(player, seconds, flagsLeft,
+                System.currentTimeMillis());
+        return worker.submit(() -> {
+            add(entry);
+            append(entry);
+            if (entriesInFile > 2L * keepTop &&
+                    entriesInFile > 2L * retained()) {
+                compact();
+            }
+        });
+    }
+
+    /**
+     * Get the best entries on the leaderboard
+     * @param n maximum number of entries
+     * @return up to n entries, best first
+     */
+    public synchronized List<Entry> top(int n) {
+        List<Entry> top = new ArrayList<>(Math.min(n, index.size()));
+        for (Entry e : index) {
+            if (top.size() == n) {
+                break;
+            }
+            top.add(e);
+        }
+        return top;
+    }
+
+    /**
+     * Get the best entry of a player
+     * @param player name of the player
+     * @return the best entry, or null if the player has none
+     */
+    public synchronized Entry personalBest(String player) {
+        return bests.get(player);
+    }
+
+    /**
+     * Get the number of entries worth keeping, the top entries plus every
+     * player's best
+     * @return upper bound on the entries kept by compaction
+     */
+    private synchronized int retained() {
+        return index.size() + bests.size();
+    }
+
+    /**
+     * Add an entry to the index of top entries and to the personal bests
+     * @param entry entry to add
+     */
+    private synchronized void add(Entry entry) {
+        Entry best = bests.get(entry.player);
+        if (best == null || ranking.compare(entry, best) < 0) {
+            bests.put(entry.player, entry);
+        }
+
+        if (index.size() < keepTop ||
+                ranking.compare(entry, index.last()) < 0) {
+            index.add(entry);
+            if (index.size() > keepTop) {
+                index.pollLast();
+            }
+        }
+    }
+
+    /**
+     * Load all entries from the file into the index, then cut off a partly
+     * written last entry so later entries are appended after whole ones
+     */
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        long complete = 0;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                Entry entry = Entry.read(in);
+                add(entry);
+                entriesInFile++;
+                complete += entry.size();
+            }
+        } catch (EOFException e) {
+            // end of file, or a partly written last entry
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        if (complete < file.length()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Append an entry to the end of the file, flushing once no more work is
+     * waiting for the worker
+     * @param entry entry to append
+     */
+    private void append(Entry entry) {
+        try {
+            if (out == null) {
+                directory.mkdirs();
+                out = new DataOutputStream(new BufferedOutputStream(
+                        new FileOutputStream(file, true)));
+            }
+            entry.write(out);
+            entriesInFile++;
+            if (worker.getQueue().isEmpty()) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeFile();
+        }
+    }
+
+    /**
+     * Write out every waiting result and close the files, called when the
+     * JVM exits since the worker is a daemon thread
+     */
+    private static void finish() {
+        worker.execute(() -> {
+            for (Leaderboard board : boards.values()) {
+                board.closeFile();
+            }
+        });
+        worker.shutdown();
+        try {
+            worker.awaitTermination(exitWaitSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Flush and close the append stream, if it is open
+     */
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Rewrite the file with only the top entries and personal bests,
+     * replacing the old file in one step so a crash never loses the
+     * leaderboard
+     */
+    private void compact() {
+        List<Entry> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(index);
+            for (Entry best : bests.values()) {
+                if (!index.contains(best)) {
+                    entries.add(best);
+                }
+            }
+        }
+        closeFile();
+        File temp = new File(directory, file.getName() + ".tmp");
+        try {
+            try (DataOutputStream tempOut = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                for (Entry e : entries) {
+                    e.write(tempOut);
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            entriesInFile = entries.size();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Nested class for one result on the leaderboard
+     */
+    public static class Entry {
+        public final String player;
+        public final int seconds;
+        public final int flagsLeft;
+        public final long timestamp;
+
+        private Entry(String player, int seconds, int flagsLeft,
+                      long timestamp) {
+            this.player = player;
+            this.seconds = seconds;
+            this.flagsLeft = flagsLeft;
+            this.timestamp = timestamp;
+        }
+
+        private static Entry read(DataInputStream in) throws IOException {
+            String player = in.readUTF();
+            int seconds = in.readInt();
+            int flagsLeft = in.readInt();
+            long timestamp = in.readLong();
+            return new Entry(player, seconds, flagsLeft, timestamp);
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeUTF(player);
+            out.writeInt(seconds);
+            out.writeInt(flagsLeft);
+            out.writeLong(timestamp);
+        }
+
+        /**
+         * Get the number of bytes write uses for this entry, counting the
+         * player name in modified UTF-8 as writeUTF does
+         * @return size of the entry in the file
+         */
+        private long size() {
+            long size = 2 + 4 + 4 + 8;
+            for (int i = 0; i < player.length(); i++) {
+                char c = player.charAt(i);
+                if (c >= 0x0001 && c <= 0x007F) {
+                    size += 1;
+                } else if (c > 0x07FF) {
+                    size += 3;
+                } else {
+                    size += 2;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %02d:%02d %d flags", player,
+                    seconds / 60, seconds % 60, flagsLeft);
+        }
+    }
+}
@@ -46,6 +46,23 @@ public class NumFlagsGUI {
         flags.repaint();
     }
 
+    /**
+     * Set the number of flags back to the start of a new game
+     * @param numFlags starting number of flags
+     */
+    public void reset(int numFlags) {
+        numFlagsUsed = numFlags;
+        flagLabel.setText(numFlagsUsed + " Flags");
+    }
+
+    /**
+     * Change the size of the panel for a new frame width
+     * @param frameWidth used to determine the size of the panel
+     */
+    public void setFrameWidth(int frameWidth) {
+        flags.setPreferredSize(new Dimension(frameWidth/4,50));
+    }
+
     /**
      * get the panel to display the number of flags used
      * @return number of flags panel
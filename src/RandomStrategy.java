@@ -0,0 +1,28 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Strategy that uncovers a random covered cell every move. Used as a
+ * baseline for other strategies.
+ * @author Amber Smith
+ */
+public class RandomStrategy implements Strategy {
+
+    @Override
+    public String getName() {
+        return "Random";
+    }
+
+    @Override
+    public int nextMove(char[][] grid) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(cols);
+            if (grid[row][col] == 'c') {
+                return Strategy.uncover(row, col, cols);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Strategy that applies the two basic Minesweeper rules to every numbered
+ * cell. If a number already has that many flags around it, its other
+ * covered neighbors are safe. If its covered and flagged neighbors add up to
+ * the number, they are all mines. When neither rule applies it guesses a
+ * random covered cell.
+ * @author Amber Smith
+ */
+public class RuleStrategy implements Strategy {
+
+    @Override
+    public String getName() {
+        return "Rules";
+    }
+
+    @Override
+    public int nextMove(char[][] grid) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                char state = grid[row][col];
+                if (state < '1' || state > '6') {
+                    continue;
+                }
+
+                // count the covered and flagged neighbors of the number
+                int coveredCount = 0;
+                int flaggedCount = 0;
+                int coveredRow = 0;
+                int coveredCol = 0;
+                for (int[] dir : HexMineManager.neighbors(col)) {
+                    int adjRow = row + dir[0];
+                    int adjCol = col + dir[1];
+                    if (adjRow < 0 || adjRow >= rows ||
+                            adjCol < 0 || adjCol >= cols) {
+                        continue;
+                    }
+                    if (grid[adjRow][adjCol] == 'c') {
+                        coveredCount++;
+                        coveredRow = adjRow;
+                        coveredCol = adjCol;
+                    } else if (grid[adjRow][adjCol] == 'F') {
+                        flaggedCount++;
+                    }
+                }
+
+                if (coveredCount == 0) {
+                    continue;
+                }
+                int number = state - '0';
+                if (flaggedCount == number) {
+                    return Strategy.uncover(coveredRow, coveredCol, cols);
+                } else if (flaggedCount + coveredCount == number) {
+                    return Strategy.flag(coveredRow, coveredCol, cols);
+                }
+            }
+        }
+
+        // no rule applies, so guess
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(cols);
+            if (grid[row][col] == 'c') {
+                return Strategy.uncover(row, col, cols);
+            }
+        }
+    }
+}
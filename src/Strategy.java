@@ -0,0 +1,54 @@
+/**
+ * Interface for a bot that plays Minesweeper. A strategy sees only the
+ * visible board, the same characters as HexMineManager.grid: 'c' for
+ * covered, 'F' for flagged, '.' for blank, and '1' to '6' for numbers.
+ * Moves are returned as ints so no objects are made per move; use
+ * uncover and flag to build them.
+ * @author Amber Smith
+ */
+public interface Strategy {
+
+    /**
+     * Get the name of the strategy for reports
+     * @return name of the strategy
+     */
+    String getName();
+
+    /**
+     * Called before each game starts
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param numMines number of mines
+     */
+    default void newGame(int rows, int cols, int numMines) {
+    }
+
+    /**
+     * Choose the next move
+     * @param grid the visible board, which must not be changed
+     * @return a move made by uncover or flag
+     */
+    int nextMove(char[][] grid);
+
+    /**
+     * Make a move that uncovers a cell
+     * @param row cell row
+     * @param col cell column
+     * @param cols number of columns on the board
+     * @return the move
+     */
+    static int uncover(int row, int col, int cols) {
+        return row * cols + col;
+    }
+
+    /**
+     * Make a move that toggles a flag on a cell
+     * @param row cell row
+     * @param col cell column
+     * @param cols number of columns on the board
+     * @return the move
+     */
+    static int flag(int row, int col, int cols) {
+        return ~(row * cols + col);
+    }
+}
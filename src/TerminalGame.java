@@ -0,0 +1,257 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Text mode for playing in a terminal, such as over SSH with no display.
+ * Shows a window of the board using BoardRenderer and, after each move,
+ * redraws only the rows of the window whose cells changed, found from the
+ * HexMineManager delta log. Uses ANSI escape codes to move the cursor.
+ *
+ * Commands: "u row col" uncover, "f row col" flag, "z" undo, "y" redo,
+ * "v row col" move the window's top left corner, "n" new game, "q" quit.
+ *
+ * Usage: TerminalGame [rows] [cols] [mines] [windowRows] [windowCols]
+ * @author Amber Smith
+ */
+public class TerminalGame {
+
+    /** ANSI escape codes for the terminal */
+    private static final String clearScreen = "\033[2J";
+    private static final String clearLine = "\033[K";
+
+    /** screen line of the first board row, below the status line */
+    private static final int boardLine = 2;
+
+    /** board settings and the game being played */
+    private final int rows;
+    private final int cols;
+    private final int numMines;
+    private HexMineManager game;
+    private BoardRenderer renderer;
+
+    /** the window of the board shown on screen */
+    private final int windowRows;
+    private final int windowCols;
+    private int topRow = 0;
+    private int leftCol = 0;
+
+    /** rows of the window that need to be redrawn */
+    private final boolean[] dirty;
+
+    /** terminal output */
+    private final Writer out;
+
+    /**
+     * Constructor for a terminal game
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param numMines number of mines
+     * @param windowRows most rows shown at once
+     * @param windowCols most columns shown at once
+     * @param out terminal output
+     */
+    public TerminalGame(int rows, int cols, int numMines, int windowRows,
+                        int windowCols, Writer out) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numMines = numMines;
+        this.windowRows = Math.min(windowRows, rows);
+        this.windowCols = Math.min(windowCols, cols);
+        this.dirty = new boolean[this.windowRows];
+        this.out = out;
+        newGame();
+    }
+
+    /**
+     * Start a new game
+     */
+    private void newGame() {
+        game = new HexMineManager(numMines, rows, cols);
+        renderer = new BoardRenderer(game);
+    }
+
+    /**
+     * Move the cursor to a screen line
+     * @param line line number starting at 1
+     * @throws IOException if the terminal fails
+     */
+    private void moveTo(int line) throws IOException {
+        out.write("\033[" + line + ";1H");
+    }
+
+    /**
+     * Write the status line and the prompt below the board
+     * @param status message for the status line
+     * @throws IOException if the terminal fails
+     */
+    private void drawStatus(String status) throws IOException {
+        moveTo(1);
+        out.write(clearLine);
+        out.write(String.format("rows %d-%d cols %d-%d | %s", topRow,
+                topRow + windowRows - 1, leftCol, leftCol + windowCols - 1,
+                status));
+        moveTo(boardLine + windowRows);
+        out.write(clearLine);
+        out.write("> ");
+        out.flush();
+    }
+
+    /**
+     * Clear the screen and draw every row of the window
+     * @throws IOException if the terminal fails
+     */
+    private void drawAll() throws IOException {
+        out.write(clearScreen);
+        for (int i = 0; i < windowRows; i++) {
+            dirty[i] = true;
+        }
+        drawDirty();
+    }
+
+    /**
+     * Redraw the rows of the window that were marked as changed
+     * @throws IOException if the terminal fails
+     */
+    private void drawDirty() throws IOException {
+        for (int i = 0; i < windowRows; i++) {
+            if (dirty[i]) {
+                dirty[i] = false;
+                moveTo(boardLine + i);
+                out.write(clearLine);
+                renderer.render(out, topRow + i, topRow + i + 1,
+                        leftCol, leftCol + windowCols);
+            }
+        }
+    }
+
+    /**
+     * Mark the window rows holding cells changed between two log positions
+     * @param from one end of the changed log entries
+     * @param to other end of the changed log entries
+     */
+    private void markChanged(int from, int to) {
+        for (int i = Math.min(from, to); i < Math.max(from, to); i++) {
+            int cell = game.loggedCell(i);
+            int row = cell / cols - topRow;
+            int col = cell % cols - leftCol;
+            if (row >= 0 && row < windowRows && col >= 0 && col < windowCols) {
+                dirty[row] = true;
+            }
+        }
+    }
+
+    /**
+     * Check whether the log entries between two positions revealed a mine
+     * @param from first log entry
+     * @param to end of the log entries
+     * @return true if one of the changed cells now shows a mine
+     */
+    private boolean hasMineShowing(int from, int to) {
+        for (int i = from; i < to; i++) {
+            int cell = game.loggedCell(i);
+            if (game.grid[cell / cols][cell % cols] == 'M') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read and play commands until the player quits
+     * @param in terminal input
+     * @throws IOException if the terminal fails
+     */
+    public void play(BufferedReader in) throws IOException {
+        drawAll();
+        drawStatus(numMines + " mines");
+
+        String line;
+        boolean over = false;
+        while ((line = in.readLine()) != null) {
+            String[] parts = line.trim().split("\\s+");
+            String status = "";
+            int before = game.logPosition();
+            try {
+                switch (parts[0]) {
+                    case "u":
+                    case "f":
+                        int row = Integer.parseInt(parts[1]);
+                        int col = Integer.parseInt(parts[2]);
+                        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+                            status = "no such cell";
+                        } else if (over) {
+                            status = "game over, n for a new game";
+                        } else if (parts[0].equals("f")) {
+                            game.toggleFlag(row, col);
+                        } else if (game.uncover(row, col) == 'M') {
+                            over = true;
+                            status = "Don't Chop Down the Truffula Tree!";
+                        } else if (game.checkForWin()) {
+                            over = true;
+                            status = "You Win! The Lorax Would be Proud :')";
+                        }
+                        break;
+                    case "z":
+                        if (game.undo()) {
+                            over = false;
+                        }
+                        break;
+                    case "y":
+                        if (!game.redo()) {
+                            break;
+                        }
+                        if (hasMineShowing(before, game.logPosition())) {
+                            over = true;
+                            status = "Don't Chop Down the Truffula Tree!";
+                        } else if (game.checkForWin()) {
+                            over = true;
+                            status = "You Win! The Lorax Would be Proud :')";
+                        }
+                        break;
+                    case "v":
+                        topRow = Math.max(0, Math.min(rows - windowRows,
+                                Integer.parseInt(parts[1])));
+                        leftCol = Math.max(0, Math.min(cols - windowCols,
+                                Integer.parseInt(parts[2])));
+                        drawAll();
+                        break;
+                    case "n":
+                        newGame();
+                        over = false;
+                        before = game.logPosition();
+                        drawAll();
+                        break;
+                    case "q":
+                        moveTo(boardLine + windowRows + 1);
+                        out.flush();
+                        return;
+                    default:
+                        status = "commands: u/f row col, z, y, v row col, n, q";
+                }
+            } catch (RuntimeException e) {
+                status = "commands: u/f row col, z, y, v row col, n, q";
+            }
+            markChanged(before, game.logPosition());
+            drawDirty();
+            drawStatus(status);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 14;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int mines = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int windowRows = args.length > 3 ? Integer.parseInt(args[3]) : 40;
+        int windowCols = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+        BufferedReader in =
+                new BufferedReader(new InputStreamReader(System.in));
+        new TerminalGame(rows, cols, mines, windowRows, windowCols, out)
+                .play(in);
+    }
+}
@@ -0,0 +1,217 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws board states into images without opening a window, using the same
+ * hex geometry, colors, and cell images as GameBoardGUI, and encodes them
+ * as PNG. Each thread keeps its own image, hexagons, and output buffer and
+ * reuses them for every board of the same size, so many boards can be
+ * drawn in parallel. Works with java.awt.headless=true.
+ *
+ * Usage: ThumbnailRenderer inputDir outputDir [hexSize]
+ * renders every .txt board in inputDir, in the text form written by
+ * BoardRenderer, to a .png of the same name in outputDir.
+ * @author Amber Smith
+ */
+public class ThumbnailRenderer {
+
+    /** buffers kept by each thread */
+    private static final ThreadLocal<ThumbnailRenderer> perThread =
+            ThreadLocal.withInitial(ThumbnailRenderer::new);
+
+    /** image being drawn into, large enough for the last board */
+    private BufferedImage canvas;
+    private Graphics2D graphics;
+
+    /** hexagons for the last board size drawn */
+    private Polygon[] hexes = new Polygon[0];
+    private int hexRows = -1;
+    private int hexCols = -1;
+    private int hexSize = -1;
+    private int width = 1;
+    private int height = 1;
+
+    /** reused buffer for PNG bytes */
+    private final ByteArrayOutputStream png = new ByteArrayOutputStream();
+
+    /**
+     * Draw a board into this thread's image
+     * @param game board to draw
+     * @param hexSize size of each hexagon
+     * @return image of the board, reused by the next call on this thread
+     */
+    public static BufferedImage render(HexMineManager game, int hexSize) {
+        return render(game.grid, hexSize);
+    }
+
+    /**
+     * Draw a visible board into this thread's image
+     * @param grid characters of each cell, as in HexMineManager.grid
+     * @param hexSize size of each hexagon
+     * @return image of the board, reused by the next call on this thread
+     */
+    public static BufferedImage render(char[][] grid, int hexSize) {
+        return perThread.get().draw(grid, hexSize);
+    }
+
+    /**
+     * Draw a visible board and encode it as PNG
+     * @param grid characters of each cell, as in HexMineManager.grid
+     * @param hexSize size of each hexagon
+     * @return the PNG bytes
+     */
+    public static byte[] renderPng(char[][] grid, int hexSize) {
+        ThumbnailRenderer renderer = perThread.get();
+        BufferedImage image = renderer.draw(grid, hexSize);
+        renderer.png.reset();
+        try {
+            ImageIO.write(image, "png", renderer.png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return renderer.png.toByteArray();
+    }
+
+    /**
+     * Draw a board, making new hexagons and a bigger canvas only if the
+     * board size changed
+     * @param grid characters of each cell
+     * @param size size of each hexagon
+     * @return the part of the canvas holding the board
+     */
+    private BufferedImage draw(char[][] grid, int size) {
+        int rows = grid.length;
+        int cols = rows == 0 ? 0 : grid[0].length;
+        if (rows != hexRows || cols != hexCols || size != hexSize) {
+            makeHexes(rows, cols, size);
+        }
+
+        if (canvas == null || canvas.getWidth() < width ||
+                canvas.getHeight() < height) {
+            if (graphics != null) {
+                graphics.dispose();
+            }
+            canvas = new BufferedImage(width, height,
+                    BufferedImage.TYPE_INT_RGB);
+            graphics = canvas.createGraphics();
+        }
+
+        graphics.setClip(null);
+        graphics.setColor(GameBoardGUI.background);
+        graphics.fillRect(0, 0, width, height);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                Polygon hex = hexes[row * cols + col];
+                char state = grid[row][col];
+                graphics.setColor(state == 'c' || state == 'F' ?
+                        GameBoardGUI.covered : GameBoardGUI.uncovered);
+                graphics.fillPolygon(hex);
+
+                Image image = GameBoardGUI.stateImage(state);
+                if (image != null) {
+                    graphics.setClip(hex);
+                    Rectangle b = hex.getBounds();
+                    graphics.drawImage(image, b.x, b.y,
+                            b.width, b.height, null);
+                    graphics.setClip(null);
+                }
+
+                graphics.setColor(GameBoardGUI.background);
+                graphics.drawPolygon(hex);
+            }
+        }
+        return canvas.getSubimage(0, 0, width, height);
+    }
+
+    /**
+     * Make the hexagon of every cell for a board size, and find the size of
+     * image they need
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param size size of each hexagon
+     */
+    private void makeHexes(int rows, int cols, int size) {
+        hexes = new Polygon[rows * cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                hexes[row * cols + col] = GameBoardGUI.cellHex(row, col, size);
+            }
+        }
+        hexRows = rows;
+        hexCols = cols;
+        hexSize = size;
+
+        Rectangle bounds = new Rectangle();
+        for (Polygon hex : hexes) {
+            bounds.add(hex.getBounds());
+        }
+        width = Math.max(1, bounds.x + bounds.width + 1);
+        height = Math.max(1, bounds.y + bounds.height + 1);
+    }
+
+    /**
+     * Read a board in the text form written by BoardRenderer
+     * @param file file holding the board
+     * @return characters of each cell
+     * @throws IOException if the file cannot be read
+     */
+    public static char[][] readBoard(File file) throws IOException {
+        List<char[]> rows = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String cells = line.replace(" ", "");
+                if (!cells.isEmpty()) {
+                    rows.add(cells.toCharArray());
+                }
+            }
+        }
+        return rows.toArray(new char[0][]);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        if (args.length < 2) {
+            System.out.println(
+                    "Usage: ThumbnailRenderer inputDir outputDir [hexSize]");
+            return;
+        }
+        File inputDir = new File(args[0]);
+        File outputDir = new File(args[1]);
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        outputDir.mkdirs();
+
+        File[] boards =
+                inputDir.listFiles((dir, name) -> name.endsWith(".txt"));
+        if (boards == null) {
+            System.out.println("Cannot read " + inputDir);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Arrays.stream(boards).parallel().forEach(file -> {
+            try {
+                byte[] bytes = renderPng(readBoard(file), size);
+                String name = file.getName().replaceAll("\\.txt$", ".png");
+                Files.write(new File(outputDir, name).toPath(), bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        System.out.printf("rendered %d boards in %.2f s%n", boards.length,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -76,6 +76,31 @@ public class TimerGUI {
         }
     }
 
+    /**
+     * stop the timer and set it back to zero for a new game
+     */
+    public void reset() {
+        stop();
+        totalSeconds = 0;
+        updateTimerLabel();
+    }
+
+    /**
+     * change the size of the panel for a new frame width
+     * @param frameWidth used to determine the size of the panel
+     */
+    public void setFrameWidth(int frameWidth) {
+        timerPanel.setPreferredSize(new Dimension(frameWidth/4,50));
+    }
+
+    /**
+     * get the number of seconds the timer has been running
+     * @return elapsed seconds
+     */
+    public int getSeconds() {
+        return totalSeconds;
+    }
+
     /**
      * get the timer panel
      * @return timer panel
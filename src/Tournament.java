@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Plays several strategies against the same seeded boards in parallel and
+ * reports each strategy's win rate, moves per game, and decision time per
+ * move. Board i of a tournament uses seed + i, so every strategy sees the
+ * same mine layouts. Each worker thread keeps its own strategy instances,
+ * boards, and counters, which are combined once at the end. Boards are reset
+ * with each game's layout rather than made again, so a game allocates only
+ * its mine layout.
+ *
+ * Usage: Tournament [games] [rows] [cols] [mines] [seed] [threads]
+ * @author Amber Smith
+ */
+public class Tournament {
+
+    /**
+     * Results for one strategy
+     */
+    public static class Result {
+        public final String name;
+        public long games = 0;
+        public long wins = 0;
+        public long moves = 0;
+        public final GameMetrics.Histogram decisionNanos;
+
+        private Result(String name) {
+            this.name = name;
+            decisionNanos = new GameMetrics.Histogram(name);
+        }
+
+        /**
+         * Add the counts of another result for the same strategy
+         * @param other result to add
+         */
+        private void add(Result other) {
+            games += other.games;
+            wins += other.wins;
+            moves += other.moves;
+            decisionNanos.add(other.decisionNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s games=%d win rate=%.1f%% " +
+                            "moves/game=%.1f decision us p50=%.1f p99=%.1f",
+                    name, games, games == 0 ? 0 : 100.0 * wins / games,
+                    games == 0 ? 0 : (double) moves / games,
+                    decisionNanos.getP50() / 1e3, decisionNanos.getP99() / 1e3);
+        }
+    }
+
+    /**
+     * Run a tournament
+     * @param strategies makers of each strategy, called once per thread
+     * @param games number of boards every strategy plays
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param numMines number of mines
+     * @param seed seed of the first board
+     * @param threads number of worker threads
+     * @return one result per strategy, in the same order
+     * @throws Exception if a strategy throws
+     */
+    public static List<Result> run(List<Supplier<Strategy>> strategies,
+                                   int games, int rows, int cols,
+                                   int numMines, long seed, int threads)
+            throws Exception {
+        AtomicInteger nextGame = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Result[]>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                Strategy[] players = new Strategy[strategies.size()];
+                Result[] results = new Result[players.length];
+                HexMineManager[] boards = new HexMineManager[players.length];
+                for (int s = 0; s < players.length; s++) {
+                    players[s] = strategies.get(s).get();
+                    results[s] = new Result(players[s].getName());
+                    boards[s] = new HexMineManager(numMines, rows, cols, seed);
+                }
+
+                int game;
+                while ((game = nextGame.getAndIncrement()) < games) {
+                    int[] mines = HexMineManager.generateMines(rows, cols,
+                            numMines, new Random(seed + game));
+                    for (int s = 0; s < players.length; s++) {
+                        boards[s].reset(mines);
+                        play(players[s], boards[s], results[s]);
+                    }
+                }
+                return results;
+            }));
+        }
+
+        List<Result> totals = new ArrayList<>();
+        try {
+            for (Future<Result[]> worker : workers) {
+                Result[] results = worker.get();
+                for (int s = 0; s < results.length; s++) {
+                    if (totals.size() == s) {
+                        totals.add(new Result(results[s].name));
+                    }
+                    totals.get(s).add(results[s]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return totals;
+    }
+
+    /**
+     * Play one game. A move on a cell outside the board forfeits the game,
+     * as does running out of moves, which stops strategies that loop.
+     * @param player strategy playing the game
+     * @param board board to play on
+     * @param result result to add the game to
+     */
+    private static void play(Strategy player, HexMineManager board,
+                             Result result) {
+        player.newGame(board.rows, board.cols, board.numMines);
+        int size = board.rows * board.cols;
+        int maxMoves = 2 * size + 10;
+        boolean won = false;
+
+        for (int moves = 1; moves <= maxMoves; moves++) {
+            long start = System.nanoTime();
+            int move = player.nextMove(board.grid);
+            result.decisionNanos.record(System.nanoTime() - start);
+            result.moves++;
+
+            int cell = move >= 0 ? move : ~move;
+            if (cell >= size) {
+                break;
+            }
+            int row = cell / board.cols;
+            int col = cell % board.cols;
+            if (move < 0) {
+                board.toggleFlag(row, col);
+            } else if (board.uncover(row, col) == 'M') {
+                break;
+            } else if (board.checkForWin()) {
+                won = true;
+                break;
+            }
+        }
+
+        result.games++;
+        if (won) {
+            result.wins++;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 14;
+        int cols = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int mines = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) :
+                Runtime.getRuntime().availableProcessors();
+
+        List<Supplier<Strategy>> strategies = new ArrayList<>();
+        strategies.add(RandomStrategy::new);
+        strategies.add(RuleStrategy::new);
+
+        long start = System.nanoTime();
+        List<Result> results =
+                run(strategies, games, rows, cols, mines, seed, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        for (Result result : results) {
+            System.out.println(result);
+        }
+        System.out.printf("%d games on %d threads in %.2f s%n",
+                games * results.size(), threads, seconds);
+    }
+}